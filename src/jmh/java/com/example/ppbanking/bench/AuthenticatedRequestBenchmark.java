@@ -0,0 +1,66 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.security.JwtService;
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second for GET /account/balance through the full security filter chain, with the
+ * authentication source varied: stateless claims, the principal cache, or (cache size 0) a users
+ * lookup on every request. The dbLookups counter shows authentication queries per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticatedRequestBenchmark {
+
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    @Param({"10000", "0"})
+    public int principalCacheSize;
+
+    private BenchContext ctx;
+    private MockMvc mvc;
+    private PrincipalCache principals;
+    private String bearer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start("--app.jwt.stateless=" + stateless,
+                "--app.security.principalCache.maxSize=" + principalCacheSize);
+        ctx.bean(AccountService.class).register("bench_user", "pass12345", "USER");
+        principals = ctx.bean(PrincipalCache.class);
+        bearer = "Bearer " + ctx.bean(JwtService.class).generateAccess(principals.get("bench_user"));
+        mvc = ctx.mockMvc();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Lookups {
+        public long dbLookups;
+    }
+
+    @Benchmark
+    public MvcResult balance(Lookups lookups) throws Exception {
+        long before = principals.dbLookups();
+        MvcResult result = mvc.perform(get("/account/balance").header("Authorization", bearer)).andReturn();
+        lookups.dbLookups += principals.dbLookups() - before;
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import com.example.ppbanking.service.BalanceCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polling-style load on AccountService: {@code readPercent}% balance reads spread over {@code accounts}
+ * accounts, the rest deposits. Compares the balance cache on and off ({@code cacheSize} 0); the aux
+ * counter {@code dbQueries} is the number of {@code users} balance queries per measured second, so its
+ * ratio to total operations is the share of reads still reaching the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class BalanceCacheBenchmark {
+
+    @Param({"0", "100000"})
+    public long cacheSize;
+
+    @Param({"95"})
+    public int readPercent;
+
+    @Param({"1000"})
+    public int accounts;
+
+    private BenchContext ctx;
+    private AccountService service;
+    private BalanceCache balances;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start("--app.account.balanceCache.maxSize=" + cacheSize);
+        service = ctx.bean(AccountService.class);
+        balances = ctx.bean(BalanceCache.class);
+        PrincipalCache principals = ctx.bean(PrincipalCache.class);
+        ids = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            service.register("poll_" + i, "pass12345", "USER");
+            ids[i] = principals.get("poll_" + i).id();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Queries {
+        public long dbQueries;
+    }
+
+    @Benchmark
+    public long poll(Queries queries) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long id = ids[rnd.nextInt(accounts)];
+        long before = balances.dbLookups();
+        long result;
+        if (rnd.nextInt(100) < readPercent) {
+            result = service.getBalance(id);
+        } else {
+            service.deposit(id, 1);
+            result = 0;
+        }
+        // Exact with one thread; with -t N it also counts other threads' queries in the same window
+        queries.dbQueries += balances.dbLookups() - before;
+        return result;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.security.JwtService;
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * A payroll run of {@code transfers} payments from one account to {@code receivers} accounts, sent as that
+ * many POST /account/transfer calls versus one POST /account/transfers/batch. Both go through the security
+ * filter chain and controller, so per-call JWT and dispatch costs are included as a client would pay them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchTransferBenchmark {
+
+    @Param({"100", "1000"})
+    public int transfers;
+
+    @Param({"50"})
+    public int receivers;
+
+    private BenchContext ctx;
+    private MockMvc mvc;
+    private String bearer;
+    private String[] singleBodies;
+    private String batchBody;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start();
+        AccountService service = ctx.bean(AccountService.class);
+        PrincipalCache principals = ctx.bean(PrincipalCache.class);
+        service.register("payroll", "pass12345", "USER");
+        long payroll = principals.get("payroll").id();
+        service.deposit(payroll, 1_000_000_000_000L);
+        long[] to = new long[receivers];
+        for (int i = 0; i < receivers; i++) {
+            service.register("employee" + i, "pass12345", "USER");
+            to[i] = principals.get("employee" + i).id();
+        }
+
+        singleBodies = new String[transfers];
+        StringJoiner items = new StringJoiner(",", "{\"mode\":\"ALL_OR_NOTHING\",\"transfers\":[", "]}");
+        for (int i = 0; i < transfers; i++) {
+            String item = "{\"toUserId\":" + to[i % receivers] + ",\"amount\":" + (1 + i % 100) + ".00}";
+            singleBodies[i] = item;
+            items.add(item);
+        }
+        batchBody = items.toString();
+        bearer = "Bearer " + ctx.bean(JwtService.class).generateAccess(principals.get("payroll"));
+        mvc = ctx.mockMvc();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public int singleCalls() throws Exception {
+        int ok = 0;
+        for (String body : singleBodies) {
+            ok += mvc.perform(post("/account/transfer").header("Authorization", bearer)
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andReturn().getResponse().getStatus() == 200 ? 1 : 0;
+        }
+        return ok;
+    }
+
+    @Benchmark
+    public int batch() throws Exception {
+        return mvc.perform(post("/account/transfers/batch").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content(batchBody))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.ppbanking.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result with a baseline from an earlier commit, matching runs by benchmark, mode and
+ * parameters. A run is flagged when it is worse than the baseline by more than the threshold percentage
+ * and by more than the two error margins combined; throughput is better higher, every other mode lower.
+ * Run by the bench profile when -Dbench.baseline points at a previous result file:
+ * <pre>
+ *   cp target/jmh-result.json /tmp/before.json   # on the old commit
+ *   mvn -Pbench -DskipTests verify -Dbench.baseline=/tmp/before.json -Dbench.failOnRegression=true
+ * </pre>
+ */
+public final class BenchCompare {
+
+    private BenchCompare() {
+    }
+
+    /** Args: result, threshold percent, fail on regression, [baseline]; without a baseline this is a no-op. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4 || args[3].isBlank()) return;
+        double threshold = Double.parseDouble(args[1]);
+        boolean fail = Boolean.parseBoolean(args[2]);
+        Map<String, JsonNode> current = load(Path.of(args[0]));
+        Map<String, JsonNode> baseline = load(Path.of(args[3]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+            JsonNode now = e.getValue();
+            JsonNode before = baseline.get(e.getKey());
+            JsonNode metric = now.path("primaryMetric");
+            String unit = metric.path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", e.getKey(), "-", metric.path("score").asDouble(), "new", unit);
+                continue;
+            }
+            JsonNode old = before.path("primaryMetric");
+            double was = old.path("score").asDouble();
+            double is = metric.path("score").asDouble();
+            double change = was == 0 ? 0 : (is - was) / was * 100;
+            double worse = "thrpt".equals(now.path("mode").asText()) ? -change : change;
+            boolean beyondNoise = Math.abs(is - was) > nonNaN(old.path("scoreError").asDouble()) + nonNaN(metric.path("scoreError").asDouble());
+            boolean regressed = worse > threshold && beyondNoise;
+            if (regressed) regressions++;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", e.getKey(), was, is, change, unit, regressed ? "  REGRESSION" : "");
+        }
+        System.out.printf("%d regression(s) beyond %.1f%% and the error margins%n", regressions, threshold);
+        if (fail && regressions > 0) System.exit(1);
+    }
+
+    private static Map<String, JsonNode> load(Path file) throws IOException {
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(Files.readAllBytes(file))) {
+            runs.put(key(run), run);
+        }
+        return runs;
+    }
+
+    private static String key(JsonNode run) {
+        String name = run.path("benchmark").asText();
+        StringBuilder key = new StringBuilder(name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1))
+                .append(" [").append(run.path("mode").asText()).append(']');
+        Map<String, String> params = new TreeMap<>();
+        run.path("params").fields().forEachRemaining(p -> params.put(p.getKey(), p.getValue().asText()));
+        params.forEach((k, v) -> key.append(' ').append(k).append('=').append(v));
+        return key.toString();
+    }
+
+    private static double nonNaN(double v) {
+        return Double.isNaN(v) ? 0 : v;
+    }
+}
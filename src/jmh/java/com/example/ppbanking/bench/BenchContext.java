@@ -0,0 +1,141 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.PpBankingApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Boots the application on the in-memory "test" profile with Tomcat on a random port, so benchmarks exercise
+ * real Spring proxies, security wiring, Hibernate and H2 exactly like the service does in production.
+ */
+public final class BenchContext implements AutoCloseable {
+    // Raw inserts draw ids from the entity sequence; each value heads its own pooled block, so they never
+    // collide with ids Hibernate hands out (at the cost of skipping the rest of that block).
+    private static final String INSERT_TX = "insert into transactions (id, sender_id, receiver_id, amount, type, created_at) " +
+            "values (next value for transactions_seq, ?, ?, ?, ?, ?)";
+
+    private final ConfigurableApplicationContext ctx;
+
+    private BenchContext(ConfigurableApplicationContext ctx) {
+        this.ctx = ctx;
+    }
+
+    /** Start the app; extra args use the usual --key=value form to override configuration. */
+    public static BenchContext start(String... args) {
+        ConfigurableApplicationContext ctx = new SpringApplicationBuilder(PpBankingApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles("test")
+                .logStartupInfo(false)
+                .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run(args);
+        return new BenchContext(ctx);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return ctx.getBean(type);
+    }
+
+    public <T> T bean(String name, Class<T> type) {
+        return ctx.getBean(name, type);
+    }
+
+    public JdbcTemplate jdbc() {
+        return ctx.getBean(JdbcTemplate.class);
+    }
+
+    /** Base URL of the embedded Tomcat, for benchmarks that go through the real HTTP connector. */
+    public String baseUrl() {
+        return "http://localhost:" + ctx.getEnvironment().getProperty("local.server.port");
+    }
+
+    /** MockMvc over the running context with the security filter chain applied, as a client would see it. */
+    public MockMvc mockMvc() {
+        return MockMvcBuilders.webAppContextSetup((WebApplicationContext) ctx)
+                .apply(springSecurity())
+                .build();
+    }
+
+    /**
+     * Bulk-insert {@code rows} transfers touching {@code userId}, alternating direction with {@code otherId},
+     * one second apart going back from now. Bypasses JPA so seeding a million rows takes seconds.
+     */
+    public void seedHistory(long userId, long otherId, int rows) {
+        LocalDateTime base = LocalDateTime.now();
+        int batch = 10_000;
+        for (int start = 0; start < rows; start += batch) {
+            int from = start;
+            int n = Math.min(batch, rows - start);
+            jdbc().batchUpdate(
+                    INSERT_TX,
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            int row = from + i;
+                            boolean outgoing = row % 2 == 0;
+                            ps.setLong(1, outgoing ? userId : otherId);
+                            ps.setLong(2, outgoing ? otherId : userId);
+                            ps.setLong(3, 100 + row % 10_000);
+                            ps.setString(4, "TRANSFER");
+                            ps.setTimestamp(5, Timestamp.valueOf(base.minusSeconds(row)));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return n;
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Bulk-insert {@code rows} transfers between random pairs of user ids in [1, users], spread over the
+     * last year. The generator is seeded, so the same arguments always produce the same table.
+     */
+    public void seedRandom(int users, int rows, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        LocalDateTime base = LocalDateTime.now();
+        long yearSeconds = 365L * 24 * 3600;
+        int batch = 10_000;
+        for (int start = 0; start < rows; start += batch) {
+            int n = Math.min(batch, rows - start);
+            jdbc().batchUpdate(
+                    INSERT_TX,
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            long sender = 1 + rnd.nextInt(users);
+                            long receiver = 1 + rnd.nextInt(users);
+                            ps.setLong(1, sender);
+                            ps.setLong(2, receiver);
+                            ps.setLong(3, 1 + rnd.nextInt(1_000_000));
+                            ps.setString(4, sender == receiver ? "DEPOSIT" : "TRANSFER");
+                            ps.setTimestamp(5, Timestamp.valueOf(base.minusSeconds(rnd.nextLong(yearSeconds))));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return n;
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public void close() {
+        ctx.close();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.security.JwtService;
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform vs. virtual request threads under a burst of {@code clients} simultaneous GET /account/balance
+ * calls over real HTTP (each does JDBC for the balance). One operation is a whole burst, so its time is the
+ * latency of the slowest client and {@code clients / score} is throughput. Non-200 answers are counted in
+ * {@code failed}. Per-request percentiles come from the load-test harness; this isolates the threading model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.httpclient.keepalive.timeout=60")
+public class ConcurrentClientsBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"1000", "5000"})
+    public int clients;
+
+    private BenchContext ctx;
+    private HttpClient http;
+    private HttpRequest balance;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = "virtual".equals(threads)
+                ? BenchContext.start("--spring.profiles.active=test,virtual")
+                : BenchContext.start();
+        ctx.bean(AccountService.class).register("bench_user", "pass12345", "USER");
+        String token = ctx.bean(JwtService.class).generateAccess(ctx.bean(PrincipalCache.class).get("bench_user"));
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        balance = HttpRequest.newBuilder(URI.create(ctx.baseUrl() + "/account/balance"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(java.time.Duration.ofSeconds(30))
+                .GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        public long failed;
+    }
+
+    @Benchmark
+    public int burst(Failures failures) {
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            inFlight[i] = http.sendAsync(balance, HttpResponse.BodyHandlers.discarding())
+                    .handle((res, ex) -> {
+                        if (ex != null || res.statusCode() != 200) {
+                            synchronized (failures) { failures.failed++; }
+                        }
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(inFlight).join();
+        return clients;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.archive.ArchiveSegment;
+import com.example.ppbanking.archive.TransactionArchive;
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.dto.TransactionPage;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import com.example.ppbanking.service.ExportFormat;
+import com.example.ppbanking.service.HistoryCursor;
+import com.example.ppbanking.service.TransactionArchiver;
+import com.example.ppbanking.service.TransactionExporter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recent-history reads as one user's ledger grows 100x. Every trial has the same last half hour
+ * ({@value #RECENT} rows) plus {@code rows} older transfers spread over the two years before the hot window.
+ * With {@code tiered} those two years are moved to the archive first, so the table holds only the recent
+ * rows; without it everything stays in the table. {@code latestPage} and {@code recentExport} (the last 30
+ * days) should not move with {@code rows}; {@code archivedPage} is a page from the middle of the old history,
+ * for the cost of reaching into the cold tier. Setup prints how long archiving took and the space it uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class HistoryTieringBenchmark {
+    private static final int RECENT = 1_000;
+    private static final int HOT_MONTHS = 3;
+    private static final String INSERT = "insert into transactions (id, sender_id, receiver_id, amount, type, created_at, " +
+            "sender_balance_after, receiver_balance_after) values (next value for transactions_seq, ?, ?, ?, 'TRANSFER', ?, ?, ?)";
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean tiered;
+
+    private BenchContext ctx;
+    private AccountService service;
+    private TransactionExporter exporter;
+    private long userId;
+    private String middleCursor;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path archiveDir = Files.createTempDirectory("bench-archive");
+        ctx = BenchContext.start("--app.archive.dir=" + archiveDir, "--app.archive.hotMonths=" + HOT_MONTHS);
+        service = ctx.bean(AccountService.class);
+        exporter = ctx.bean(TransactionExporter.class);
+        service.register("bench_user", "pass12345", "USER");
+        service.register("bench_peer", "pass12345", "USER");
+        UserRepository users = ctx.bean(UserRepository.class);
+        userId = users.findByUsername("bench_user").map(User::getId).orElseThrow();
+        long peerId = users.findByUsername("bench_peer").map(User::getId).orElseThrow();
+
+        LocalDateTime hotStart = YearMonth.now().minusMonths(HOT_MONTHS - 1).atDay(1).atStartOfDay();
+        LocalDateTime oldStart = hotStart.minusYears(2);
+        seedOld(userId, peerId, oldStart, hotStart);
+        ctx.seedHistory(userId, peerId, RECENT);
+        LocalDateTime middle = oldStart.plus(Duration.between(oldStart, hotStart).dividedBy(2));
+        middleCursor = new HistoryCursor(middle, Long.MAX_VALUE).encode();
+
+        if (tiered) {
+            long start = System.nanoTime();
+            TransactionArchiver archiver = ctx.bean(TransactionArchiver.class);
+            var archived = archiver.run();
+            var purged = archiver.run();
+            long bytes = 0;
+            for (ArchiveSegment s : ctx.bean(TransactionArchive.class).snapshot().segments().values()) {
+                bytes += Files.size(archiveDir.resolve("tx-" + s.month() + ".seg"));
+            }
+            System.out.printf("== Archived %d rows in %d months (%.1f MB on disk), purged %d, in %.1f s ==%n",
+                    archived.rowsArchived(), archived.months(), bytes / 1e6, purged.rowsPurged(),
+                    (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public TransactionPage latestPage() {
+        return service.getHistory(userId, null, 50);
+    }
+
+    @Benchmark
+    public void recentExport() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        exporter.export(userId, now.minusDays(30), now.plusDays(1), ExportFormat.CSV, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public TransactionPage archivedPage() {
+        return service.getHistory(userId, middleCursor, 50);
+    }
+
+    // Alternating transfers with the peer, evenly spaced over [from, to), with consistent balances-after
+    private void seedOld(long userId, long peerId, LocalDateTime from, LocalDateTime to) {
+        long stepMicros = Duration.between(from, to).toNanos() / 1_000 / rows;
+        int batch = 10_000;
+        for (int start = 0; start < rows; start += batch) {
+            int first = start;
+            int n = Math.min(batch, rows - start);
+            ctx.jdbc().batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    int row = first + i;
+                    boolean outgoing = row % 2 == 1;
+                    // The user receives 100 and sends it back, so balances stay at 100 / 0
+                    ps.setLong(1, outgoing ? userId : peerId);
+                    ps.setLong(2, outgoing ? peerId : userId);
+                    ps.setLong(3, 100);
+                    ps.setTimestamp(4, Timestamp.valueOf(from.plusNanos(row * stepMicros * 1_000)));
+                    ps.setLong(5, outgoing ? 0 : 1_000_000 - 100);
+                    ps.setLong(6, outgoing ? 1_000_000 : 100);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return n;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.domain.IdempotencyRecord;
+import com.example.ppbanking.repo.IdempotencyRecordRepository;
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import com.example.ppbanking.service.IdempotencyService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of answering a retried Idempotency-Key: four threads keep retrying the same already-completed key,
+ * as clients hammering a timed-out transfer would; the replay is answered from the in-memory index.
+ * {@code persistentLookup} is the database read a replay costs after a restart, for comparison. Read p99
+ * from the sample-time percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class IdempotencyBenchmark {
+
+    private BenchContext ctx;
+    private IdempotencyService idempotency;
+    private AccountService service;
+    private IdempotencyRecordRepository records;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start();
+        service = ctx.bean(AccountService.class);
+        service.register("bench_user", "pass12345", "USER");
+        userId = ctx.bean(PrincipalCache.class).get("bench_user").id();
+        service.deposit(userId, 1_000_000);
+        idempotency = ctx.bean(IdempotencyService.class);
+        idempotency.execute(userId, "retried-key", "transfer:2:100", () -> service.withdraw(userId, 100));
+        records = ctx.bean(IdempotencyRecordRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public boolean replaySameKey() {
+        return idempotency.execute(userId, "retried-key", "transfer:2:100", () -> service.withdraw(userId, 100));
+    }
+
+    @Benchmark
+    public IdempotencyRecord persistentLookup() {
+        return records.findById(userId + ":retried-key").orElseThrow();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.security.AppPrincipal;
+import com.example.ppbanking.security.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and subject extraction through {@link JwtService}: what every login/refresh pays to sign
+ * tokens, and what {@code extractUsername} costs with the verified-token cache off (size 0) or on.
+ * TokenVerificationBenchmark covers verification against the old per-call parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final String SECRET = "this_is_a_test_secret_that_is_long_enough_123456";
+    private static final int TOKENS = 1000;
+
+    @Param({"0", "10000"})
+    public int verifiedCacheSize;
+
+    private JwtService jwt;
+    private AppPrincipal principal;
+    private String[] issued;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        jwt = new JwtService(SECRET, 900_000, 604_800_000, verifiedCacheSize, new SimpleMeterRegistry());
+        principal = new AppPrincipal(1L, "bench_user", "USER");
+        issued = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            issued[i] = jwt.generateAccess(new AppPrincipal((long) i, "user" + i, "USER"));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String generateAccess() {
+        return jwt.generateAccess(principal);
+    }
+
+    @Benchmark
+    public String generateRefresh() {
+        return jwt.generateRefresh(principal.username());
+    }
+
+    @Benchmark
+    public String extractUsername(Cursor c) {
+        String token = issued[c.next];
+        c.next = (c.next + 1) % TOKENS;
+        return jwt.extractUsername(token);
+    }
+}
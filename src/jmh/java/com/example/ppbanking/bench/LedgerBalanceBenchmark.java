@@ -0,0 +1,89 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import com.example.ppbanking.service.LedgerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger-mode balance reads: two accounts with the same {@code postings} history, one of which has a
+ * balance snapshot just before its last 100 postings. {@code replay} sums the whole history;
+ * {@code fromSnapshot} reads the snapshot plus the tail, so it stays flat as history grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerBalanceBenchmark {
+    private static final String INSERT_POSTING =
+            "insert into ledger_postings (id, tx_id, account_id, amount, created_at) " +
+                    "values (next value for ledger_postings_seq, null, ?, ?, ?)";
+    private static final int TAIL = 100;
+
+    @Param({"10000", "100000"})
+    public int postings;
+
+    private BenchContext ctx;
+    private LedgerService ledger;
+    private long snapshotted;
+    private long unsnapshotted;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start("--app.ledger.enabled=true");
+        AccountService service = ctx.bean(AccountService.class);
+        service.register("ledger_snap", "pass12345", "USER");
+        service.register("ledger_nosnap", "pass12345", "USER");
+        snapshotted = ctx.bean(PrincipalCache.class).get("ledger_snap").id();
+        unsnapshotted = ctx.bean(PrincipalCache.class).get("ledger_nosnap").id();
+        ledger = ctx.bean(LedgerService.class);
+
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        seed(snapshotted, start);
+        seed(unsnapshotted, start);
+        LocalDateTime asOf = start.plusSeconds(postings - TAIL);
+        long balance = ledger.balanceAt(snapshotted, asOf);
+        ctx.jdbc().update("insert into balance_snapshots (id, account_id, balance, as_of) " +
+                "values (next value for balance_snapshots_seq, ?, ?, ?)", snapshotted, balance, Timestamp.valueOf(asOf));
+    }
+
+    private void seed(long account, LocalDateTime start) {
+        ctx.jdbc().batchUpdate(INSERT_POSTING, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, account);
+                ps.setLong(2, i % 3 == 0 ? -50 : 100);
+                ps.setTimestamp(3, Timestamp.valueOf(start.plusSeconds(i + 1)));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return postings;
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public long replay() {
+        return ledger.balanceAt(unsnapshotted, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public long fromSnapshot() {
+        return ledger.balanceAt(snapshotted, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.domain.Transaction;
+import com.example.ppbanking.repo.TransactionRepository;
+import com.example.ppbanking.service.AccountService;
+import com.example.ppbanking.security.PrincipalCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk ledger inserts through Hibernate: {@code rows} new Transaction entities saved in one transaction,
+ * either with {@code saveAll} (what repeated recordTx calls amount to) or the batch-transfer path
+ * {@code insertAll}. Throughput is rows per second via {@link OperationsPerInvocation}. Insert batching
+ * depends on the id generator: IDENTITY forces one round trip per row to read the key back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(LedgerInsertBenchmark.ROWS)
+public class LedgerInsertBenchmark {
+    static final int ROWS = 1000;
+
+    private BenchContext ctx;
+    private TransactionRepository txs;
+    private TransactionTemplate tx;
+    private long a;
+    private long b;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start();
+        AccountService service = ctx.bean(AccountService.class);
+        service.register("ledger_a", "pass12345", "USER");
+        service.register("ledger_b", "pass12345", "USER");
+        a = ctx.bean(PrincipalCache.class).get("ledger_a").id();
+        b = ctx.bean(PrincipalCache.class).get("ledger_b").id();
+        txs = ctx.bean(TransactionRepository.class);
+        tx = ctx.bean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    private List<Transaction> rows() {
+        List<Transaction> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Transaction t = new Transaction();
+            t.setSenderId(i % 2 == 0 ? a : b);
+            t.setReceiverId(i % 2 == 0 ? b : a);
+            t.setAmount(100 + i);
+            t.setType("TRANSFER");
+            rows.add(t);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public int saveAll() {
+        return tx.execute(s -> txs.saveAll(rows()).size());
+    }
+
+    @Benchmark
+    public int insertAll() {
+        List<Transaction> rows = rows();
+        tx.executeWithoutResult(s -> txs.insertAll(rows));
+        return rows.size();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.security.JwtService;
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of GET /account/balance over real HTTP with and without a concurrent login storm. Group
+ * {@code quiet} only reads; group {@code storm} adds eight clients logging in back to back at production
+ * BCrypt cost against a deliberately small Tomcat pool. With hashing on its own bounded pool the reader's
+ * latency should stay close to {@code quiet}; shed logins show up in the {@code rejected} counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoginStormBenchmark {
+
+    @Param({"10"})
+    public int bcryptStrength;
+
+    @Param({"16"})
+    public int tomcatThreads;
+
+    private BenchContext ctx;
+    private HttpClient http;
+    private HttpRequest balance;
+    private HttpRequest login;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start("--app.security.bcryptStrength=" + bcryptStrength,
+                "--server.tomcat.threads.max=" + tomcatThreads);
+        ctx.bean(AccountService.class).register("bench_reader", "pass12345", "USER");
+        ctx.bean(AccountService.class).register("bench_login", "pass12345", "USER");
+        String token = ctx.bean(JwtService.class).generateAccess(ctx.bean(PrincipalCache.class).get("bench_reader"));
+
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        balance = HttpRequest.newBuilder(URI.create(ctx.baseUrl() + "/account/balance"))
+                .header("Authorization", "Bearer " + token)
+                .GET().build();
+        login = HttpRequest.newBuilder(URI.create(ctx.baseUrl() + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"bench_login\",\"password\":\"pass12345\"}"))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Logins {
+        public long accepted;
+        public long rejected;
+    }
+
+    private int get(HttpRequest req) throws Exception {
+        return http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    @Group("quiet")
+    public int quietBalance() throws Exception {
+        return get(balance);
+    }
+
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(1)
+    public int stormBalance() throws Exception {
+        return get(balance);
+    }
+
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(8)
+    public int stormLogin(Logins logins) throws Exception {
+        int status = get(login);
+        if (status == 503) logins.rejected++;
+        else logins.accepted++;
+        return status;
+    }
+}
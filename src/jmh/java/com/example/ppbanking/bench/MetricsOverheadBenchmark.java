@@ -0,0 +1,87 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.monitoring.OutcomeTimers;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.security.JwtService;
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Cost of the Micrometer instrumentation on the hot paths: the same deposit, transfer and authenticated
+ * request with every meter enabled (plus Hibernate statistics) and with all meters denied, which turns
+ * each timer into a no-op while leaving the code path identical. End-to-end scores on a busy machine are
+ * noisier than the difference, so {@code timedNoop} isolates the per-call cost of a timed operation in
+ * nanoseconds, to set against the microseconds-to-milliseconds of the operations themselves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"true", "false"})
+    public boolean metrics;
+
+    private BenchContext ctx;
+    private AccountService service;
+    private OutcomeTimers timers;
+    private MockMvc mvc;
+    private String bearer;
+    private long idA;
+    private long idB;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = metrics
+                ? BenchContext.start()
+                : BenchContext.start("--management.metrics.enable.all=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false");
+        service = ctx.bean(AccountService.class);
+        UserRepository users = ctx.bean(UserRepository.class);
+        service.register("bench_a", "pass12345", "USER");
+        service.register("bench_b", "pass12345", "USER");
+        idA = users.findByUsername("bench_a").map(User::getId).orElseThrow();
+        idB = users.findByUsername("bench_b").map(User::getId).orElseThrow();
+        service.deposit(idA, 100_000_000_000L);
+        service.deposit(idB, 100_000_000_000L);
+        timers = ctx.bean("accountOperations", OutcomeTimers.class);
+        mvc = ctx.mockMvc();
+        bearer = "Bearer " + ctx.bean(JwtService.class).generateAccess(ctx.bean(PrincipalCache.class).get("bench_a"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public void deposit() {
+        service.deposit(idA, 1_234);
+    }
+
+    @Benchmark
+    public void transfer() {
+        service.transfer(idA, idB, 1_234);
+    }
+
+    @Benchmark
+    public int authenticatedBalance() throws Exception {
+        return mvc.perform(get("/account/balance").header("Authorization", bearer)).andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long timedNoop() {
+        return timers.record("deposit", () -> idA);
+    }
+}
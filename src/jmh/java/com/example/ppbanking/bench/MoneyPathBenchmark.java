@@ -0,0 +1,99 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation in the money paths; run with {@code -prof gc} and compare gc.alloc.rate.norm.
+ *
+ * <p>The {@code boxed*}/{@code primitive*} pair isolates the arithmetic the entities used to do on
+ * {@code Double} (a new box per getter/setter round trip) against the {@code long} cents they hold now.
+ * The service benchmarks show the same paths end to end through JPA and H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyPathBenchmark {
+
+    /** Mirrors the old entity shape: a boxed balance mutated through getter/setter. */
+    public static class BoxedAccount {
+        private Double balance = 0.0;
+        public Double getBalance() { return balance; }
+        public void setBalance(Double balance) { this.balance = balance; }
+    }
+
+    public static class PrimitiveAccount {
+        private long balance;
+        public long getBalance() { return balance; }
+        public void setBalance(long balance) { this.balance = balance; }
+    }
+
+    private final BoxedAccount boxedFrom = new BoxedAccount();
+    private final BoxedAccount boxedTo = new BoxedAccount();
+    private final PrimitiveAccount primitiveFrom = new PrimitiveAccount();
+    private final PrimitiveAccount primitiveTo = new PrimitiveAccount();
+
+    private BenchContext ctx;
+    private AccountService service;
+    private long idA;
+    private long idB;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start();
+        service = ctx.bean(AccountService.class);
+        UserRepository users = ctx.bean(UserRepository.class);
+        service.register("bench_a", "pass12345", "USER");
+        service.register("bench_b", "pass12345", "USER");
+        idA = users.findByUsername("bench_a").map(User::getId).orElseThrow();
+        idB = users.findByUsername("bench_b").map(User::getId).orElseThrow();
+        service.deposit(idA, 100_000_000_000L);
+        service.deposit(idB, 100_000_000_000L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public void boxedTransferArithmetic(Blackhole bh) {
+        double amount = 12.34;
+        boxedFrom.setBalance(boxedFrom.getBalance() - amount);
+        boxedTo.setBalance(boxedTo.getBalance() + amount);
+        bh.consume(boxedFrom);
+        bh.consume(boxedTo);
+    }
+
+    @Benchmark
+    public void primitiveTransferArithmetic(Blackhole bh) {
+        long amount = 1_234;
+        primitiveFrom.setBalance(primitiveFrom.getBalance() - amount);
+        primitiveTo.setBalance(primitiveTo.getBalance() + amount);
+        bh.consume(primitiveFrom);
+        bh.consume(primitiveTo);
+    }
+
+    @Benchmark
+    public void deposit() {
+        service.deposit(idA, 1_234);
+    }
+
+    @Benchmark
+    public void withdraw() {
+        service.withdraw(idB, 1_234);
+    }
+
+    @Benchmark
+    public void transfer() {
+        service.transfer(idA, idB, 1_234);
+    }
+}
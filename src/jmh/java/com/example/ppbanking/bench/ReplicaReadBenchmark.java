@@ -0,0 +1,110 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.dto.TransactionPage;
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * History read throughput with and without a replica ({@code routed}). {@code reads} is four threads paging
+ * random users' history; the {@code mixed} group is three such readers next to one thread making transfers,
+ * whose reads of its own two accounts stay on the primary (read-your-writes). The replica is a second
+ * in-memory H2 loaded from a script copy of the seeded primary and never updated after that, so it stands
+ * for a replica that is always behind; the writer's accounts are new, hence absent from it. Routed reads
+ * include the two version lookups that decide where each one goes.
+ * <p>
+ * Both databases run in this JVM and share its cores: the numbers show what routing itself costs and how
+ * reads spread over two pools, not the extra capacity of a replica on its own machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReplicaReadBenchmark {
+    private static final int USERS = 1_000;
+    private static final int ROWS = 100_000;
+    private static final String REPLICA_URL = "jdbc:h2:mem:benchreplica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Param({"false", "true"})
+    public boolean routed;
+
+    private BenchContext ctx;
+    private AccountService service;
+    private long writerA;
+    private long writerB;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, SQLException {
+        ctx = routed
+                ? BenchContext.start("--app.datasource.replica.enabled=true", "--app.datasource.replica.url=" + REPLICA_URL)
+                : BenchContext.start();
+        ctx.seedRandom(USERS, ROWS, 42);
+        if (routed) replicate();
+
+        service = ctx.bean(AccountService.class);
+        service.register("bench_writer_a", "pass12345", "USER");
+        service.register("bench_writer_b", "pass12345", "USER");
+        PrincipalCache principals = ctx.bean(PrincipalCache.class);
+        writerA = principals.get("bench_writer_a").id();
+        writerB = principals.get("bench_writer_b").id();
+        service.deposit(writerA, 1_000_000_000);
+        service.deposit(writerB, 1_000_000_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransactionPage reads() {
+        return randomHistory();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public TransactionPage mixedReads() {
+        return randomHistory();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public TransactionPage mixedWrites() {
+        boolean forward = ThreadLocalRandom.current().nextBoolean();
+        service.transfer(forward ? writerA : writerB, forward ? writerB : writerA, 100);
+        return service.getHistory(writerA, null, 10);
+    }
+
+    private TransactionPage randomHistory() {
+        return service.getHistory(1L + ThreadLocalRandom.current().nextInt(USERS), null, 50);
+    }
+
+    private void replicate() throws IOException, SQLException {
+        Path script = Files.createTempFile("bench-primary", ".sql");
+        try {
+            ctx.jdbc().execute("script to '" + script + "'");
+            try (Connection con = DriverManager.getConnection(REPLICA_URL, "sa", "");
+                 Statement st = con.createStatement()) {
+                st.execute("drop all objects");
+                st.execute("runscript from '" + script + "'");
+            }
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.archive.ArchiveSnapshot;
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.repo.TransactionRepository;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import com.example.ppbanking.service.BalanceBackfill;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statements over a {@code rows}-transaction history. The {@code replay*} methods are what a running
+ * balance cost before rows carried it: load the whole history and accumulate it oldest first, both for the
+ * latest statement page and for the balance at a point in time halfway back. The others read the stored
+ * balance-after: one keyset page, or two index seeks. Setup fills the seeded rows with the backfill job
+ * and prints how long that took.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StatementBenchmark {
+    private static final int PAGE = 50;
+    private static final LocalDateTime NEWEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Param({"1000000"})
+    public int rows;
+
+    private BenchContext ctx;
+    private TransactionRepository txs;
+    private long userId;
+    private LocalDateTime midpoint;
+
+    /** One statement line: the row and the user's balance after it. */
+    public record Line(TransactionView tx, long balance) {}
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start();
+        AccountService service = ctx.bean(AccountService.class);
+        txs = ctx.bean(TransactionRepository.class);
+        service.register("bench_user", "pass12345", "USER");
+        service.register("bench_peer", "pass12345", "USER");
+        UserRepository users = ctx.bean(UserRepository.class);
+        userId = users.findByUsername("bench_user").map(User::getId).orElseThrow();
+        long peerId = users.findByUsername("bench_peer").map(User::getId).orElseThrow();
+        ctx.seedHistory(userId, peerId, rows);
+        // seedHistory goes back one second per row from now
+        midpoint = LocalDateTime.now().minusSeconds(rows / 2);
+
+        long start = System.nanoTime();
+        var filled = ctx.bean(BalanceBackfill.class).run();
+        System.out.printf("== Backfilled %d rows over %d accounts in %.1f s ==%n",
+                filled.rowsUpdated(), filled.accounts(), (System.nanoTime() - start) / 1e9);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public List<Line> replayLatestPage() {
+        List<TransactionView> history = txs.findAllForUser(userId);
+        long balance = 0;
+        List<Line> lines = new ArrayList<>(history.size());
+        for (int i = history.size() - 1; i >= 0; i--) {
+            TransactionView t = history.get(i);
+            balance += delta(t);
+            lines.add(new Line(t, balance));
+        }
+        return lines.subList(Math.max(0, lines.size() - PAGE), lines.size());
+    }
+
+    @Benchmark
+    public List<TransactionView> storedLatestPage() {
+        return txs.findPageForUser(userId, ArchiveSnapshot.BEGINNING, NEWEST, Long.MAX_VALUE, PAGE);
+    }
+
+    @Benchmark
+    public long replayBalanceAt() {
+        List<TransactionView> history = txs.findAllForUser(userId);
+        long balance = 0;
+        for (int i = history.size() - 1; i >= 0 && !history.get(i).createdAt().isAfter(midpoint); i--) {
+            balance += delta(history.get(i));
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public List<Long> seekBalanceAt() {
+        return txs.findBalanceAt(userId, ArchiveSnapshot.BEGINNING, midpoint);
+    }
+
+    private long delta(TransactionView t) {
+        return switch (t.type()) {
+            case "DEPOSIT" -> t.amount();
+            case "WITHDRAW" -> -t.amount();
+            default -> t.senderId() == userId ? -t.amount() : t.amount();
+        };
+    }
+}
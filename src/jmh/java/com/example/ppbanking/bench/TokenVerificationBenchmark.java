@@ -0,0 +1,71 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.security.AppPrincipal;
+import com.example.ppbanking.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access-token verification throughput. {@code rebuildPerCall} is the previous behaviour (derive the HMAC
+ * key and build a parser for every token); {@code shared} uses {@link JwtService} with its prebuilt parser,
+ * with the verified-token cache off (size 0) or on. {@code tokens} distinct tokens are verified round-robin,
+ * standing in for that many concurrently active clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerificationBenchmark {
+    private static final String SECRET = "this_is_a_test_secret_that_is_long_enough_123456";
+
+    @Param({"0", "10000"})
+    public int verifiedCacheSize;
+
+    @Param({"1000"})
+    public int tokens;
+
+    private JwtService jwt;
+    private String[] issued;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        jwt = new JwtService(SECRET, 900_000, 604_800_000, verifiedCacheSize, new SimpleMeterRegistry());
+        issued = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            issued[i] = jwt.generateAccess(new AppPrincipal((long) i, "user" + i, "USER"));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    private String nextToken(Cursor c) {
+        String t = issued[c.next];
+        c.next = (c.next + 1) % issued.length;
+        return t;
+    }
+
+    @Benchmark
+    public Claims shared(Cursor c) {
+        return jwt.parse(nextToken(c));
+    }
+
+    @Benchmark
+    public Claims rebuildPerCall(Cursor c) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(nextToken(c))
+                .getBody();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.repo.TransactionRepository;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unbounded history load (the old GET /account) versus keyset pages, including JSON serialization
+ * since that is what every dashboard refresh pays for. Run with -prof gc for allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionHistoryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private BenchContext ctx;
+    private AccountService service;
+    private TransactionRepository txs;
+    private ObjectMapper json;
+    private long userId;
+    private String middleCursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start();
+        service = ctx.bean(AccountService.class);
+        txs = ctx.bean(TransactionRepository.class);
+        json = ctx.bean(ObjectMapper.class);
+
+        service.register("bench_user", "pass12345", "USER");
+        service.register("bench_peer", "pass12345", "USER");
+        UserRepository users = ctx.bean(UserRepository.class);
+        userId = users.findByUsername("bench_user").map(User::getId).orElseThrow();
+        long peerId = users.findByUsername("bench_peer").map(User::getId).orElseThrow();
+        ctx.seedHistory(userId, peerId, rows);
+
+        // Walk to roughly the middle so deepPage measures a seek, not just the head of the index.
+        String cursor = null;
+        for (int i = 0; i < 20; i++) cursor = service.getHistory(userId, cursor, 500).nextCursor();
+        middleCursor = cursor;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public byte[] unboundedHistory() throws Exception {
+        return json.writeValueAsBytes(txs.findAllForUser(userId));
+    }
+
+    @Benchmark
+    public byte[] firstPage() throws Exception {
+        return json.writeValueAsBytes(service.getHistory(userId, null, null));
+    }
+
+    @Benchmark
+    public byte[] deepPage() throws Exception {
+        return json.writeValueAsBytes(service.getHistory(userId, middleCursor, null));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.archive.ArchiveSnapshot;
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.repo.TransactionRepository;
+import com.example.ppbanking.service.HistoryCursor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The original single-statement OR query against the UNION ALL form now used by
+ * {@link TransactionRepository}, on a table of {@code rows} random transfers between {@code users}
+ * accounts. Setup prints EXPLAIN for both, so the run log shows the plan change next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class TransactionQueryPlanBenchmark {
+
+    private static final String OR_PAGE_SQL = """
+            select * from transactions t where t.sender_id = ? or t.receiver_id = ?
+            order by t.created_at desc, t.id desc limit ?""";
+
+    @Param({"1000000", "10000000"})
+    public int rows;
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"50"})
+    public int pageSize;
+
+    private BenchContext ctx;
+    private JdbcTemplate jdbc;
+    private TransactionRepository txs;
+    private long nextUser;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start();
+        jdbc = ctx.jdbc();
+        txs = ctx.bean(TransactionRepository.class);
+        ctx.seedRandom(users, rows, 42L);
+
+        explain("OR query", """
+                select * from transactions t where t.sender_id = 1 or t.receiver_id = 1
+                order by t.created_at desc, t.id desc limit 50""");
+        explain("UNION ALL query", """
+                select * from (
+                    (select t.* from transactions t where t.sender_id = 1
+                      order by t.created_at desc, t.id desc limit 50)
+                    union all
+                    (select t.* from transactions t where t.receiver_id = 1 and t.sender_id <> 1
+                      order by t.created_at desc, t.id desc limit 50)
+                ) h order by h.created_at desc, h.id desc limit 50""");
+        // H2 does not expand derived tables in EXPLAIN, so show one branch on its own as well.
+        explain("UNION ALL sender branch", """
+                select t.* from transactions t where t.sender_id = 1
+                order by t.created_at desc, t.id desc limit 50""");
+    }
+
+    /** Cycle through users: H2 reuses the previous result of an identical query on an unchanged table. */
+    private long nextUser() {
+        nextUser = nextUser % users + 1;
+        return nextUser;
+    }
+
+    private void explain(String label, String sql) {
+        StringBuilder plan = new StringBuilder();
+        for (Map<String, Object> row : jdbc.queryForList("explain " + sql)) {
+            row.values().forEach(v -> plan.append(v).append('\n'));
+        }
+        System.out.println("== " + label + " plan (" + rows + " rows) ==\n" + plan);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> orQueryPage() {
+        long userId = nextUser();
+        return jdbc.queryForList(OR_PAGE_SQL, userId, userId, pageSize);
+    }
+
+    @Benchmark
+    public List<TransactionView> unionAllPage() {
+        return txs.findPageForUser(nextUser(), ArchiveSnapshot.BEGINNING, HistoryCursor.START.createdAt(),
+                HistoryCursor.START.id(), pageSize);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.repo.TransactionRepository;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TransactionRepository#findAllForUser} as the table grows: {@code fixedHistory} reads a pair of
+ * users sharing {@link #HISTORY} transfers, so any growth with {@code rows} is index cost rather than
+ * result size;
+ * {@code randomUser} cycles through {@code users} accounts sharing the {@code rows} random transfers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionRepositoryBenchmark {
+    private static final int HISTORY = 1_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"1000"})
+    public int users;
+
+    private BenchContext ctx;
+    private TransactionRepository txs;
+    private final long[] pair = new long[2];
+    private int nextPair;
+    private long nextUser;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start();
+        txs = ctx.bean(TransactionRepository.class);
+        // Random rows reference ids 1..users; the registered pair gets ids outside that range
+        ctx.seedRandom(users, rows, 42L);
+        AccountService service = ctx.bean(AccountService.class);
+        service.register("bench_user", "pass12345", "USER");
+        service.register("bench_peer", "pass12345", "USER");
+        UserRepository accounts = ctx.bean(UserRepository.class);
+        pair[0] = accounts.findByUsername("bench_user").map(User::getId).orElseThrow();
+        pair[1] = accounts.findByUsername("bench_peer").map(User::getId).orElseThrow();
+        ctx.seedHistory(pair[0], pair[1], HISTORY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    /** Alternate (and cycle below): H2 reuses the previous result of an identical query on an unchanged table. */
+    @Benchmark
+    public List<TransactionView> fixedHistory() {
+        nextPair ^= 1;
+        return txs.findAllForUser(pair[nextPair]);
+    }
+
+    @Benchmark
+    public List<TransactionView> randomUser() {
+        nextUser = nextUser % users + 1;
+        return txs.findAllForUser(nextUser);
+    }
+}
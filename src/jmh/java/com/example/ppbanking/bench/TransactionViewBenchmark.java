@@ -0,0 +1,129 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.archive.ArchiveSnapshot;
+import com.example.ppbanking.domain.Transaction;
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.repo.TransactionRepository;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1k history rows loaded and serialized as managed {@link Transaction} entities (the previous path)
+ * versus {@link TransactionView} projections, end to end and as serialization alone. Run with
+ * {@code -prof gc}: gc.alloc.rate.norm is the allocation per 1k rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionViewBenchmark {
+    private static final int PAGE = 1_000;
+
+    // The history page query as it was before projections: every row becomes a managed entity
+    private static final String ENTITY_PAGE = """
+            select * from (
+                (select t.* from transactions t
+                  where t.sender_id = :uid
+                    and t.created_at <= :beforeTs and (t.created_at < :beforeTs or t.id < :beforeId)
+                  order by t.created_at desc, t.id desc limit :limit)
+                union all
+                (select t.* from transactions t
+                  where t.receiver_id = :uid and t.sender_id <> :uid
+                    and t.created_at <= :beforeTs and (t.created_at < :beforeTs or t.id < :beforeId)
+                  order by t.created_at desc, t.id desc limit :limit)
+            ) h order by h.created_at desc, h.id desc limit :limit""";
+    private static final LocalDateTime NEWEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private BenchContext ctx;
+    private TransactionRepository txs;
+    private EntityManager em;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private ObjectMapper json;
+    private long userId;
+    private List<Transaction> entities;
+    private List<TransactionView> views;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start();
+        AccountService service = ctx.bean(AccountService.class);
+        txs = ctx.bean(TransactionRepository.class);
+        em = ctx.bean(EntityManager.class);
+        json = ctx.bean(ObjectMapper.class);
+        PlatformTransactionManager tm = ctx.bean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(tm);
+        readOnly = new TransactionTemplate(tm);
+        readOnly.setReadOnly(true);
+
+        service.register("bench_user", "pass12345", "USER");
+        service.register("bench_peer", "pass12345", "USER");
+        UserRepository users = ctx.bean(UserRepository.class);
+        userId = users.findByUsername("bench_user").map(User::getId).orElseThrow();
+        long peerId = users.findByUsername("bench_peer").map(User::getId).orElseThrow();
+        ctx.seedHistory(userId, peerId, 10 * PAGE);
+
+        entities = readWrite.execute(s -> loadEntities());
+        views = readOnly.execute(s -> loadViews());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public byte[] entityPage() {
+        // Flushed (and so dirty-checked) at commit, as any read-write service method would be
+        return readWrite.execute(s -> serialize(loadEntities()));
+    }
+
+    @Benchmark
+    public byte[] viewPage() {
+        return readOnly.execute(s -> serialize(loadViews()));
+    }
+
+    @Benchmark
+    public byte[] entityJson() {
+        return serialize(entities);
+    }
+
+    @Benchmark
+    public byte[] viewJson() {
+        return serialize(views);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Transaction> loadEntities() {
+        return em.createNativeQuery(ENTITY_PAGE, Transaction.class)
+                .setParameter("uid", userId)
+                .setParameter("beforeTs", NEWEST)
+                .setParameter("beforeId", Long.MAX_VALUE)
+                .setParameter("limit", PAGE)
+                .getResultList();
+    }
+
+    private List<TransactionView> loadViews() {
+        return txs.findPageForUser(userId, ArchiveSnapshot.BEGINNING, NEWEST, Long.MAX_VALUE, PAGE);
+    }
+
+    private byte[] serialize(List<?> rows) {
+        try {
+            return json.writeValueAsBytes(rows);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers per second through AccountService for each app.account.concurrency mode. Run with
+ * {@code -t N} to add contention; accounts are funded well enough that transfers never bounce for
+ * lack of money. Optimistic transfers that exhaust their retries are counted separately as "busy".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class TransferBenchmark {
+
+    @Param({"optimistic", "pessimistic", "atomic"})
+    public String mode;
+
+    @Param({"16"})
+    public int accounts;
+
+    private BenchContext ctx;
+    private AccountService service;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start("--app.account.concurrency=" + mode);
+        service = ctx.bean(AccountService.class);
+        UserRepository users = ctx.bean(UserRepository.class);
+        ids = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            service.register("bench_" + i, "pass12345", "USER");
+            ids[i] = users.findByUsername("bench_" + i).map(User::getId).orElseThrow();
+            service.deposit(ids[i], 100_000_000_000L);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long completed;
+        public long busy;
+    }
+
+    @Benchmark
+    public void transfer(Outcomes outcomes) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int from = rnd.nextInt(accounts);
+        int to = (from + 1 + rnd.nextInt(accounts - 1)) % accounts;
+        try {
+            service.transfer(ids[from], ids[to], 100);
+            outcomes.completed++;
+        } catch (ApiException e) {
+            outcomes.busy++;
+        }
+    }
+}
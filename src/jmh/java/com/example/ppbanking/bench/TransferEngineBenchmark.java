@@ -0,0 +1,78 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.engine.CommandType;
+import com.example.ppbanking.engine.TransferEngine;
+import com.example.ppbanking.engine.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Transfers per second through the single-writer engine alone (write-ahead log included, database
+ * projection replaced by a no-op), to compare with TransferBenchmark's JPA paths. {@code blocking} waits
+ * for each transfer like a request thread does (run with {@code -t N}: concurrent callers share an fsync);
+ * {@code pipelined} keeps {@link #WINDOW} transfers in flight from one thread, as a batching client would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class TransferEngineBenchmark {
+    static final int WINDOW = 1024;
+
+    @Param({"true", "false"})
+    public boolean fsync;
+
+    @Param({"1000"})
+    public int accounts;
+
+    private Path dir;
+    private TransferEngine engine;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("engine-bench");
+        engine = new TransferEngine(WriteAheadLog.open(dir, 64 << 20, fsync), batch -> { }, 65536, 4096, 1);
+        for (int id = 1; id <= accounts; id++) engine.load(id, Long.MAX_VALUE / 4);
+        engine.recover(0);
+        engine.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        engine.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void blocking() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int from = 1 + rnd.nextInt(accounts);
+        int to = 1 + (from + rnd.nextInt(accounts - 1)) % accounts;
+        engine.execute(CommandType.TRANSFER, from, to, 100);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public void pipelined() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[WINDOW];
+        for (int i = 0; i < WINDOW; i++) {
+            int from = 1 + rnd.nextInt(accounts);
+            int to = 1 + (from + rnd.nextInt(accounts - 1)) % accounts;
+            inFlight[i] = engine.submit(CommandType.TRANSFER, from, to, 100);
+        }
+        CompletableFuture.allOf(inFlight).join();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.ppbanking.bench;
+
+import com.example.ppbanking.service.AccountService;
+import com.example.ppbanking.service.ImportFormat;
+import com.example.ppbanking.service.UserImporter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to create {@code rows} users: one POST /admin/users/import worth of CSV through {@link UserImporter}
+ * versus {@code AccountService.registerHashed} per row (the old way, minus the HTTP round trips).
+ * {@code passwords=hashed} rows carry migrated BCrypt hashes; {@code plain} rows are hashed at
+ * {@code bcryptStrength}, which then dominates: divide rows by the score for users per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class UserImportBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"hashed", "plain"})
+    public String passwords;
+
+    @Param({"4"})
+    public int bcryptStrength;
+
+    private BenchContext ctx;
+    private UserImporter importer;
+    private AccountService service;
+    private String hash;
+    private int round;
+    private String prefix;
+    private byte[] csv;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = BenchContext.start("--app.security.bcryptStrength=" + bcryptStrength);
+        importer = ctx.bean(UserImporter.class);
+        service = ctx.bean(AccountService.class);
+        hash = ctx.bean(PasswordEncoder.class).encode("pass12345");
+    }
+
+    @Setup(Level.Invocation)
+    public void input() {
+        prefix = "r" + (round++) + "_";
+        StringBuilder sb = new StringBuilder(rows * 80).append("username,password,passwordHash\n");
+        for (int i = 0; i < rows; i++) {
+            sb.append(prefix).append(i).append(',');
+            if (passwords.equals("plain")) sb.append("pass").append(i).append("x,\n");
+            else sb.append(',').append(hash).append('\n');
+        }
+        csv = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public long bulkImport() throws Exception {
+        return importer.importUsers(new ByteArrayInputStream(csv), ImportFormat.CSV).imported();
+    }
+
+    @Benchmark
+    public long perRowRegister() {
+        for (int i = 0; i < rows; i++) {
+            String password = passwords.equals("plain") ? "pass" + i + "x" : null;
+            if (password != null) service.register(prefix + i, password, "USER");
+            else service.registerHashed(prefix + i, hash, "USER");
+        }
+        return rows;
+    }
+}
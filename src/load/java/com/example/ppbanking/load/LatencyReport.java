@@ -0,0 +1,90 @@
+package com.example.ppbanking.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Merged results of a measured window: one histogram (microseconds) and error count per operation. Writes
+ * each operation's percentile distribution as {@code <op>.hgrm} (milliseconds, plottable with the
+ * HdrHistogram plotter) and all of them, tagged by operation, to {@code load.hlog}; prints a summary and
+ * checks the configured p99/p999 objectives.
+ */
+final class LatencyReport {
+    static final String ALL = "all";
+
+    private final Map<String, Histogram> latencies = new LinkedHashMap<>();
+    private final Map<String, Long> errors = new LinkedHashMap<>();
+    private final long startMillis;
+    private final double seconds;
+
+    LatencyReport(long startMillis, double seconds) {
+        this.startMillis = startMillis;
+        this.seconds = seconds;
+        latencies.put(ALL, LoadTest.newHistogram());
+        errors.put(ALL, 0L);
+    }
+
+    void add(String op, Histogram latency, long errorCount) {
+        latencies.computeIfAbsent(op, k -> LoadTest.newHistogram()).add(latency);
+        latencies.get(ALL).add(latency);
+        errors.merge(op, errorCount, Long::sum);
+        errors.merge(ALL, errorCount, Long::sum);
+    }
+
+    void write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        try (PrintStream log = new PrintStream(Files.newOutputStream(dir.resolve("load.hlog")))) {
+            HistogramLogWriter writer = new HistogramLogWriter(log);
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(startMillis);
+            writer.outputLegend();
+            for (Map.Entry<String, Histogram> e : latencies.entrySet()) {
+                Histogram h = e.getValue().copy();
+                h.setTag(e.getKey());
+                h.setStartTimeStamp(startMillis);
+                h.setEndTimeStamp(startMillis + (long) (seconds * 1000));
+                writer.outputIntervalHistogram(h);
+                try (PrintStream hgrm = new PrintStream(Files.newOutputStream(dir.resolve(e.getKey() + ".hgrm")))) {
+                    e.getValue().outputPercentileDistribution(hgrm, 1000.0);
+                }
+            }
+        }
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-10s %10s %10s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        latencies.forEach((op, h) -> out.printf("%-10s %10d %10.1f %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                op, h.getTotalCount(), h.getTotalCount() / seconds, errors.get(op),
+                millis(h, 50), millis(h, 90), millis(h, 99), millis(h, 99.9), h.getMaxValue() / 1000.0));
+    }
+
+    /** True when every operation meets the objectives; a limit of 0 is not checked. */
+    boolean meets(double p99LimitMillis, double p999LimitMillis, PrintStream out) {
+        boolean ok = true;
+        for (Map.Entry<String, Histogram> e : latencies.entrySet()) {
+            double p99 = millis(e.getValue(), 99);
+            double p999 = millis(e.getValue(), 99.9);
+            if (p99LimitMillis > 0 && p99 > p99LimitMillis) {
+                out.printf("SLO missed: %s p99 %.2f ms > %.2f ms%n", e.getKey(), p99, p99LimitMillis);
+                ok = false;
+            }
+            if (p999LimitMillis > 0 && p999 > p999LimitMillis) {
+                out.printf("SLO missed: %s p999 %.2f ms > %.2f ms%n", e.getKey(), p999, p999LimitMillis);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    private static double millis(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.ppbanking.load;
+
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.engine.CommandType;
+import com.example.ppbanking.engine.TransferEngine;
+import com.example.ppbanking.repo.UserRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds the dataset a load run starts from: {@code users} funded accounts sharing one password (hashed
+ * once with the application's encoder) and {@code transactions} random transfers between them spread over
+ * the last year. Both go in as JDBC batches, the way the admin import does, so a million rows take seconds.
+ */
+final class LoadSeeder {
+    static final String PASSWORD = "load12345";
+    static final long OPENING_BALANCE = 1_000_000_00L;
+
+    private static final int CHUNK = 10_000;
+    private static final String INSERT_TX = "insert into transactions (id, sender_id, receiver_id, amount, type, created_at) " +
+            "values (next value for transactions_seq, ?, ?, ?, ?, ?)";
+
+    private final ApplicationContext ctx;
+
+    LoadSeeder(ApplicationContext ctx) {
+        this.ctx = ctx;
+    }
+
+    /** Insert the users and return their ids; user {@code i} is named {@link #username(int)}. */
+    long[] seedUsers(int count) {
+        UserRepository users = ctx.getBean(UserRepository.class);
+        TransactionTemplate tx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+        String hash = ctx.getBean(PasswordEncoder.class).encode(PASSWORD);
+        TransferEngine engine = ctx.getBeanProvider(TransferEngine.class).getIfAvailable();
+        long[] ids = new long[count];
+        for (int start = 0; start < count; start += CHUNK) {
+            List<User> batch = new ArrayList<>(Math.min(CHUNK, count - start));
+            for (int i = start; i < Math.min(count, start + CHUNK); i++) {
+                User u = new User();
+                u.setUsername(username(i));
+                u.setPasswordHash(hash);
+                u.setBalance(engine == null ? OPENING_BALANCE : 0);
+                u.setRole("USER");
+                batch.add(u);
+            }
+            tx.executeWithoutResult(s -> users.insertAll(batch));
+            for (int i = 0; i < batch.size(); i++) ids[start + i] = batch.get(i).getId();
+        }
+        // The engine only reads balances from the database at startup: fund through it, its projection writes them back
+        if (engine != null) {
+            for (long id : ids) {
+                engine.open(id);
+                engine.execute(CommandType.DEPOSIT, id, id, OPENING_BALANCE);
+            }
+        }
+        return ids;
+    }
+
+    /** Insert {@code count} transfers between random pairs of {@code ids}; the same seed gives the same rows. */
+    void seedTransactions(long[] ids, int count, long seed) {
+        JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+        SplittableRandom rnd = new SplittableRandom(seed);
+        LocalDateTime now = LocalDateTime.now();
+        long yearSeconds = 365L * 24 * 3600;
+        for (int start = 0; start < count; start += CHUNK) {
+            List<Object[]> rows = new ArrayList<>(Math.min(CHUNK, count - start));
+            for (int i = start; i < Math.min(count, start + CHUNK); i++) {
+                long sender = ids[rnd.nextInt(ids.length)];
+                long receiver = ids[rnd.nextInt(ids.length)];
+                rows.add(new Object[]{sender, receiver, 1 + rnd.nextLong(100_000), sender == receiver ? "DEPOSIT" : "TRANSFER",
+                        Timestamp.valueOf(now.minusSeconds(rnd.nextLong(yearSeconds)))});
+            }
+            jdbc.batchUpdate(INSERT_TX, rows);
+        }
+    }
+
+    static String username(int i) {
+        return "load_user_" + i;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.ppbanking.load;
+
+import com.example.ppbanking.PpBankingApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test: boots the application on the in-memory "test" profile with Tomcat on a random
+ * port, seeds the dataset ({@link LoadSeeder}) and drives a mix of login, GET /account, deposit, withdraw
+ * and transfer over real HTTP from {@code load.concurrency} clients, each logged in as a random seeded user.
+ * After {@code load.warmupSeconds} the histograms are reset and {@code load.durationSeconds} are measured.
+ *
+ * <p>With {@code load.rate} 0 every client sends its next request as soon as the last one returns (closed
+ * loop, maximum throughput). With a rate, requests are scheduled at fixed intervals and latency is taken
+ * from the scheduled start, so a stall is charged to every request it delayed (no coordinated omission).
+ *
+ * <p>Options are {@code --load.*} arguments; anything else configures the application as usual, e.g.
+ * {@code --spring.datasource.url=jdbc:h2:file:./target/load/bank;MODE=PostgreSQL} for a file database or
+ * {@code --app.security.bcryptStrength=10} for production hashing cost. Exits 1 when an SLO is missed.
+ */
+public final class LoadTest {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    /** Requests the harness issues; the mix weights them. */
+    enum Op {
+        LOGIN, ACCOUNT, DEPOSIT, WITHDRAW, TRANSFER;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final HttpClient http;
+    private final String baseUrl;
+    private final long[] ids;
+    private final int[] mix = new int[Op.values().length];
+    private final int mixTotal;
+    private final int concurrency;
+    private final double rate;
+    private final long seed;
+
+    private volatile long measureFrom;
+    private volatile long measureUntil;
+
+    private LoadTest(String baseUrl, long[] ids, Environment env) {
+        this.baseUrl = baseUrl;
+        this.ids = ids;
+        this.concurrency = env.getProperty("load.concurrency", Integer.class, 16);
+        this.rate = env.getProperty("load.rate", Double.class, 0.0);
+        this.seed = env.getProperty("load.seed", Long.class, 42L);
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        int total = 0;
+        for (String part : env.getProperty("load.mix", "login:5,account:30,deposit:20,withdraw:20,transfer:25").split(",")) {
+            String[] kv = part.trim().split(":");
+            int weight = Integer.parseInt(kv[1].trim());
+            mix[Op.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)).ordinal()] = weight;
+            total += weight;
+        }
+        if (total <= 0) throw new IllegalArgumentException("load.mix has no positive weights");
+        this.mixTotal = total;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext ctx = new SpringApplicationBuilder(PpBankingApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles("test")
+                .logStartupInfo(false)
+                .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run(args);
+        boolean met;
+        try {
+            met = run(ctx);
+        } finally {
+            ctx.close();
+        }
+        System.exit(met ? 0 : 1);
+    }
+
+    private static boolean run(ConfigurableApplicationContext ctx) throws Exception {
+        Environment env = ctx.getEnvironment();
+        int users = env.getProperty("load.users", Integer.class, 1_000);
+        if (users < 2) throw new IllegalArgumentException("load.users must be at least 2 for transfers");
+        int transactions = env.getProperty("load.transactions", Integer.class, 100_000);
+        long seed = env.getProperty("load.seed", Long.class, 42L);
+
+        long seedStart = System.nanoTime();
+        LoadSeeder seeder = new LoadSeeder(ctx);
+        long[] ids = seeder.seedUsers(users);
+        seeder.seedTransactions(ids, transactions, seed);
+        System.out.printf("Seeded %d users and %d transactions in %.1f s%n",
+                users, transactions, (System.nanoTime() - seedStart) / 1e9);
+
+        LoadTest test = new LoadTest("http://localhost:" + env.getProperty("local.server.port"), ids, env);
+        LatencyReport report = test.drive(env.getProperty("load.warmupSeconds", Integer.class, 10),
+                env.getProperty("load.durationSeconds", Integer.class, 60));
+        report.print(System.out);
+        Path dir = Path.of(env.getProperty("load.reportDir", "target/load"));
+        report.write(dir);
+        System.out.println("Histograms written to " + dir.toAbsolutePath());
+        return report.meets(env.getProperty("load.slo.p99Millis", Double.class, 0.0),
+                env.getProperty("load.slo.p999Millis", Double.class, 0.0), System.out);
+    }
+
+    static Histogram newHistogram() {
+        return new Histogram(MAX_LATENCY_MICROS, 3);
+    }
+
+    private LatencyReport drive(int warmupSeconds, int durationSeconds) throws InterruptedException {
+        long now = System.nanoTime();
+        measureFrom = now + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long startMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(warmupSeconds);
+
+        List<Client> clients = new ArrayList<>(concurrency);
+        List<Thread> threads = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Client c = new Client(new SplittableRandom(seed + i));
+            clients.add(c);
+            threads.add(Thread.ofPlatform().name("load-client-" + i).start(c));
+        }
+        for (Thread t : threads) t.join();
+
+        LatencyReport report = new LatencyReport(startMillis, durationSeconds);
+        for (Client c : clients) {
+            for (Op op : Op.values()) {
+                if (mix[op.ordinal()] > 0) report.add(op.key(), c.latency[op.ordinal()], c.errors[op.ordinal()]);
+            }
+        }
+        return report;
+    }
+
+    /** One simulated user session; owns its histograms, which are merged once it has finished. */
+    private final class Client implements Runnable {
+        final Histogram[] latency = new Histogram[Op.values().length];
+        final long[] errors = new long[Op.values().length];
+        private final SplittableRandom rnd;
+        private int userIndex;
+        private String bearer;
+
+        Client(SplittableRandom rnd) {
+            this.rnd = rnd;
+            for (int i = 0; i < latency.length; i++) latency[i] = newHistogram();
+        }
+
+        @Override
+        public void run() {
+            login();
+            boolean measuring = false;
+            long interval = rate > 0 ? (long) (concurrency * 1e9 / rate) : 0;
+            long next = System.nanoTime();
+            while (true) {
+                long start = System.nanoTime();
+                if (start >= measureUntil) return;
+                if (!measuring && start >= measureFrom) {
+                    for (Histogram h : latency) h.reset();
+                    Arrays.fill(errors, 0);
+                    measuring = true;
+                }
+                if (interval > 0) {
+                    while (start < next) {
+                        LockSupport.parkNanos(next - start);
+                        start = System.nanoTime();
+                    }
+                    start = next;
+                    next += interval;
+                }
+                Op op = pick();
+                boolean ok = send(op);
+                latency[op.ordinal()].recordValue(Math.min(MAX_LATENCY_MICROS, (System.nanoTime() - start) / 1000));
+                if (!ok) errors[op.ordinal()]++;
+            }
+        }
+
+        private Op pick() {
+            int r = rnd.nextInt(mixTotal);
+            for (Op op : Op.values()) {
+                r -= mix[op.ordinal()];
+                if (r < 0) return op;
+            }
+            throw new IllegalStateException();
+        }
+
+        private boolean send(Op op) {
+            try {
+                return switch (op) {
+                    case LOGIN -> login();
+                    case ACCOUNT -> call(HttpRequest.newBuilder(uri("/account")).GET());
+                    case DEPOSIT -> call(post("/account/deposit", "{\"amount\":1.00}"));
+                    case WITHDRAW -> call(post("/account/withdraw", "{\"amount\":0.50}"));
+                    case TRANSFER -> call(post("/account/transfer",
+                            "{\"toUserId\":" + otherUser() + ",\"amount\":0.25}"));
+                };
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /** Log in as a random seeded user; later requests act as that user. */
+        private boolean login() {
+            int index = rnd.nextInt(ids.length);
+            String body = "{\"username\":\"" + LoadSeeder.username(index) + "\",\"password\":\"" + LoadSeeder.PASSWORD + "\"}";
+            try {
+                HttpResponse<String> res = http.send(post("/auth/login", body).build(), HttpResponse.BodyHandlers.ofString());
+                if (res.statusCode() != 200) return false;
+                bearer = "Bearer " + json.readTree(res.body()).path("accessToken").asText();
+                userIndex = index;
+                return true;
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private boolean call(HttpRequest.Builder request) throws IOException, InterruptedException {
+            HttpResponse<Void> res = http.send(request.header("Authorization", bearer).build(), HttpResponse.BodyHandlers.discarding());
+            // An expired session logs in again, as a client would; the failed request still counts as an error
+            if (res.statusCode() == 401) login();
+            return res.statusCode() / 100 == 2;
+        }
+
+        private long otherUser() {
+            int i = rnd.nextInt(ids.length - 1);
+            return ids[i >= userIndex ? i + 1 : i];
+        }
+
+        private HttpRequest.Builder post(String path, String body) {
+            return HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+
+        private URI uri(String path) {
+            return URI.create(baseUrl + path);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.example.ppbanking.archive;
+
+import com.example.ppbanking.dto.TransactionView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One archived month of transactions: a read-only file written once by {@link Writer} and never modified.
+ * Rows are stored per account, as that account's history (a transfer appears in both parties' blocks, each
+ * with its own balance-after), in blocks of up to {@value #BLOCK_ROWS} rows ordered by (createdAt, id).
+ * A block is columnar (all ids, then all timestamps, ...; delta and varint encoded) and deflated. The
+ * block index sits at the end of the file and is held in memory, so reading an account's rows costs one
+ * positioned read and one inflate per block touched, and nothing for accounts without rows that month.
+ */
+public final class ArchiveSegment implements Closeable {
+    static final int BLOCK_ROWS = 1024;
+    private static final long MAGIC = 0x5050_5458_5345_4731L; // "PPTXSEG1"
+    private static final int HEADER_BYTES = 8;
+    private static final int INDEX_ENTRY_BYTES = 6 * 8 + 3 * 4;
+    private static final int TRAILER_BYTES = 8 + 4 + 4 + 8;
+
+    private final YearMonth month;
+    private final FileChannel channel;
+    // Block index, sorted by account and then by position in that account's history
+    private final long[] account;
+    private final long[] firstMicros;
+    private final long[] firstId;
+    private final long[] lastMicros;
+    private final long[] offset;
+    private final int[] length;
+    private final int[] rawLength;
+    private final int[] rows;
+
+    private ArchiveSegment(YearMonth month, FileChannel channel, int blocks) {
+        this.month = month;
+        this.channel = channel;
+        this.account = new long[blocks];
+        this.firstMicros = new long[blocks];
+        this.firstId = new long[blocks];
+        this.lastMicros = new long[blocks];
+        this.offset = new long[blocks];
+        this.length = new int[blocks];
+        this.rawLength = new int[blocks];
+        this.rows = new int[blocks];
+    }
+
+    /** Open a finished segment and load its block index; fails on a file that is not one. */
+    public static ArchiveSegment open(Path file, YearMonth month) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = ch.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES) throw new IOException("Archive segment too short: " + file);
+            ByteBuffer trailer = readFully(ch, size - TRAILER_BYTES, TRAILER_BYTES);
+            long indexOffset = trailer.getLong();
+            int blocks = trailer.getInt();
+            int indexCrc = trailer.getInt();
+            if (trailer.getLong() != MAGIC || indexOffset + (long) blocks * INDEX_ENTRY_BYTES != size - TRAILER_BYTES) {
+                throw new IOException("Not an archive segment: " + file);
+            }
+            ByteBuffer index = readFully(ch, indexOffset, blocks * INDEX_ENTRY_BYTES);
+            CRC32C crc = new CRC32C();
+            crc.update(index.duplicate());
+            if ((int) crc.getValue() != indexCrc) throw new IOException("Corrupt archive segment index: " + file);
+
+            ArchiveSegment s = new ArchiveSegment(month, ch, blocks);
+            for (int b = 0; b < blocks; b++) {
+                s.account[b] = index.getLong();
+                s.firstMicros[b] = index.getLong();
+                s.firstId[b] = index.getLong();
+                s.lastMicros[b] = index.getLong();
+                index.getLong(); // last row's id: not needed for lookups
+                s.offset[b] = index.getLong();
+                s.length[b] = index.getInt();
+                s.rawLength[b] = index.getInt();
+                s.rows[b] = index.getInt();
+            }
+            return s;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    public YearMonth month() {
+        return month;
+    }
+
+    /**
+     * Append the account's rows strictly older than (beforeTs, beforeId) to {@code out}, newest first,
+     * until it holds {@code limit} rows.
+     */
+    public void collectBefore(long accountId, LocalDateTime beforeTs, long beforeId, int limit,
+                              List<TransactionView> out) throws IOException {
+        long before = micros(beforeTs);
+        int lo = firstBlock(accountId);
+        int hi = endBlock(accountId, lo);
+        for (int b = lastBlockStartingBefore(lo, hi, before, beforeId); b >= lo && out.size() < limit; b--) {
+            List<TransactionView> block = block(b);
+            for (int i = block.size() - 1; i >= 0 && out.size() < limit; i--) {
+                TransactionView t = block.get(i);
+                long m = micros(t.createdAt());
+                if (m < before || (m == before && t.id() < beforeId)) out.add(t);
+            }
+        }
+    }
+
+    /** The account's newest row at or before {@code at}, or null. */
+    public TransactionView latestAt(long accountId, LocalDateTime at) throws IOException {
+        long limit = micros(at);
+        int lo = firstBlock(accountId);
+        int b = lastBlockStartingBefore(lo, endBlock(accountId, lo), limit, Long.MAX_VALUE);
+        if (b < lo) return null;
+        List<TransactionView> block = block(b);
+        for (int i = block.size() - 1; i >= 0; i--) {
+            if (micros(block.get(i).createdAt()) <= limit) return block.get(i);
+        }
+        return null;
+    }
+
+    /** Pass the account's rows with {@code from <= createdAt < to} to the action, oldest first. */
+    public void forEach(long accountId, LocalDateTime from, LocalDateTime to, Consumer<TransactionView> action)
+            throws IOException {
+        long start = micros(from);
+        long end = micros(to);
+        int lo = firstBlock(accountId);
+        int hi = endBlock(accountId, lo);
+        for (int b = lo; b < hi && firstMicros[b] < end; b++) {
+            if (lastMicros[b] < start) continue;
+            for (TransactionView t : block(b)) {
+                long m = micros(t.createdAt());
+                if (m >= start && m < end) action.accept(t);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int firstBlock(long accountId) {
+        int lo = 0;
+        int hi = account.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (account[mid] < accountId) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int endBlock(long accountId, int from) {
+        int b = from;
+        while (b < account.length && account[b] == accountId) b++;
+        return b;
+    }
+
+    // Last block in [lo, hi) whose first row is strictly older than (micros, id); lo - 1 when there is none
+    private int lastBlockStartingBefore(int lo, int hi, long micros, long id) {
+        int l = lo;
+        int h = hi;
+        while (l < h) {
+            int mid = (l + h) >>> 1;
+            if (firstMicros[mid] < micros || (firstMicros[mid] == micros && firstId[mid] < id)) l = mid + 1;
+            else h = mid;
+        }
+        return l - 1;
+    }
+
+    private List<TransactionView> block(int b) throws IOException {
+        ByteBuffer packed = readFully(channel, offset[b], length[b]);
+        byte[] raw = new byte[rawLength[b]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(packed);
+            if (inflater.inflate(raw) != raw.length || !inflater.finished()) {
+                throw new IOException("Corrupt archive block " + b + " in " + month);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive block " + b + " in " + month, e);
+        } finally {
+            inflater.end();
+        }
+        return decode(ByteBuffer.wrap(raw), account[b], rows[b]);
+    }
+
+    private static List<TransactionView> decode(ByteBuffer in, long accountId, int n) throws IOException {
+        if (readVarLong(in) != n) throw new IOException("Archive block row count mismatch");
+        String[] types = new String[(int) readVarLong(in)];
+        for (int i = 0; i < types.length; i++) {
+            byte[] name = new byte[(int) readVarLong(in)];
+            in.get(name);
+            types[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        long[] id = new long[n];
+        long[] created = new long[n];
+        long[] sender = new long[n];
+        long[] receiver = new long[n];
+        long[] amount = new long[n];
+        long prev = 0;
+        for (int i = 0; i < n; i++) id[i] = prev += readZigZag(in);
+        prev = 0;
+        for (int i = 0; i < n; i++) created[i] = prev += readZigZag(in);
+        for (int i = 0; i < n; i++) sender[i] = accountId + readZigZag(in);
+        for (int i = 0; i < n; i++) receiver[i] = accountId + readZigZag(in);
+        for (int i = 0; i < n; i++) amount[i] = readZigZag(in);
+        byte[] type = new byte[n];
+        in.get(type);
+        List<TransactionView> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            long balance = readVarLong(in);
+            out.add(new TransactionView(id[i], sender[i], receiver[i], amount[i], types[type[i]],
+                    dateTime(created[i]), balance == 0 ? null : unZigZag(balance - 1)));
+        }
+        return out;
+    }
+
+    /**
+     * Writes a segment to a temporary file next to its final name. Rows are appended grouped by account in
+     * ascending account order, each account's rows oldest first; {@link #commit} finishes the file and moves
+     * it into place, while {@link #close} without a commit discards it.
+     */
+    public static final class Writer implements Closeable {
+        private final Path target;
+        private final Path tmp;
+        private final FileChannel out;
+        private final Deflater deflater = new Deflater();
+        private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        private final List<TransactionView> pending = new ArrayList<>(BLOCK_ROWS);
+        private long pendingAccount = Long.MIN_VALUE;
+        private long position = HEADER_BYTES;
+        private int blocks;
+        private long transactions;
+        private boolean committed;
+
+        Writer(Path target) throws IOException {
+            this.target = target;
+            this.tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            writeFully(out, ByteBuffer.allocate(HEADER_BYTES).putLong(MAGIC).flip(), 0);
+        }
+
+        public void append(long accountId, TransactionView t) throws IOException {
+            if (accountId < pendingAccount) throw new IllegalArgumentException("Accounts must be appended in order");
+            if (accountId != pendingAccount || pending.size() == BLOCK_ROWS) flushBlock();
+            pendingAccount = accountId;
+            pending.add(t);
+            if (t.senderId() == accountId) transactions++;
+        }
+
+        /** Distinct transactions appended so far: each is counted once, in its sender's history. */
+        public long transactions() {
+            return transactions;
+        }
+
+        Path commit() throws IOException {
+            flushBlock();
+            byte[] entries = index.toByteArray();
+            CRC32C crc = new CRC32C();
+            crc.update(entries);
+            writeFully(out, ByteBuffer.wrap(entries), position);
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES)
+                    .putLong(position).putInt(blocks).putInt((int) crc.getValue()).putLong(MAGIC).flip();
+            writeFully(out, trailer, position + entries.length);
+            out.force(true);
+            out.close();
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return target;
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(tmp);
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (pending.isEmpty()) return;
+            int n = pending.size();
+            long accountId = pendingAccount;
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(n * 16);
+            List<String> types = new ArrayList<>(4);
+            for (TransactionView t : pending) {
+                if (!types.contains(t.type())) types.add(t.type());
+            }
+            writeVarLong(raw, n);
+            writeVarLong(raw, types.size());
+            for (String type : types) {
+                byte[] name = type.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(raw, name.length);
+                raw.writeBytes(name);
+            }
+            long prev = 0;
+            for (TransactionView t : pending) {
+                writeZigZag(raw, t.id() - prev);
+                prev = t.id();
+            }
+            prev = 0;
+            for (TransactionView t : pending) {
+                long m = micros(t.createdAt());
+                writeZigZag(raw, m - prev);
+                prev = m;
+            }
+            // One of the two parties is the account itself, which encodes as a single zero byte
+            for (TransactionView t : pending) writeZigZag(raw, t.senderId() - accountId);
+            for (TransactionView t : pending) writeZigZag(raw, t.receiverId() - accountId);
+            for (TransactionView t : pending) writeZigZag(raw, t.amount());
+            for (TransactionView t : pending) raw.write(types.indexOf(t.type()));
+            for (TransactionView t : pending) writeVarLong(raw, t.balanceAfter() == null ? 0 : zigZag(t.balanceAfter()) + 1);
+
+            byte[] bytes = raw.toByteArray();
+            deflater.reset();
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream packed = new ByteArrayOutputStream(bytes.length / 2 + 64);
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) packed.write(buf, 0, deflater.deflate(buf));
+            writeFully(out, ByteBuffer.wrap(packed.toByteArray()), position);
+
+            TransactionView first = pending.get(0);
+            TransactionView last = pending.get(n - 1);
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES)
+                    .putLong(accountId)
+                    .putLong(micros(first.createdAt())).putLong(first.id())
+                    .putLong(micros(last.createdAt())).putLong(last.id())
+                    .putLong(position)
+                    .putInt(packed.size()).putInt(bytes.length).putInt(n);
+            index.writeBytes(entry.array());
+            position += packed.size();
+            blocks++;
+            pending.clear();
+        }
+    }
+
+    static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), 0, ZoneOffset.UTC)
+                .plus(Math.floorMod(micros, 1_000_000), ChronoUnit.MICROS);
+    }
+
+    private static ByteBuffer readFully(FileChannel ch, long position, int bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(bytes);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0) throw new IOException("Archive segment truncated");
+        }
+        return buf.flip();
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) ch.write(buf, position + buf.position());
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeZigZag(ByteArrayOutputStream out, long v) {
+        writeVarLong(out, zigZag(v));
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readZigZag(ByteBuffer in) {
+        return unZigZag(readVarLong(in));
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.ppbanking.archive;
+
+import com.example.ppbanking.dto.TransactionView;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.function.Consumer;
+
+/**
+ * The archive as of one moment: the published months and the horizon they end at. Every transaction older
+ * than the horizon is here and nothing newer is, so a read takes {@code createdAt >= horizon} from the
+ * transactions table and the rest from this snapshot, touching only the months its range covers. Take one
+ * snapshot per request, so both halves agree on the horizon while months are being archived.
+ */
+public final class ArchiveSnapshot {
+    /** Horizon of an empty archive, i.e. a lower bound that reads the whole table; inside every database's range. */
+    public static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final NavigableMap<YearMonth, ArchiveSegment> segments;
+    private final LocalDateTime horizon;
+
+    ArchiveSnapshot(NavigableMap<YearMonth, ArchiveSegment> segments) {
+        this.segments = Collections.unmodifiableNavigableMap(segments);
+        this.horizon = segments.isEmpty() ? BEGINNING : segments.lastKey().plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    /** Start of the first month not archived: everything before it is read from here. */
+    public LocalDateTime horizon() {
+        return horizon;
+    }
+
+    public NavigableMap<YearMonth, ArchiveSegment> segments() {
+        return segments;
+    }
+
+    /** Up to {@code limit} of the user's archived rows strictly older than (beforeTs, beforeId), newest first. */
+    public List<TransactionView> page(Long userId, LocalDateTime beforeTs, Long beforeId, int limit) {
+        List<TransactionView> out = new ArrayList<>(Math.min(limit, ArchiveSegment.BLOCK_ROWS));
+        if (segments.isEmpty() || limit <= 0) return out;
+        try {
+            for (ArchiveSegment s : segments.headMap(YearMonth.from(beforeTs), true).descendingMap().values()) {
+                s.collectBefore(userId, beforeTs, beforeId, limit, out);
+                if (out.size() >= limit) break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    /** The user's newest archived row at or before {@code at}, or null. */
+    public TransactionView latestAt(Long userId, LocalDateTime at) {
+        try {
+            for (ArchiveSegment s : segments.headMap(YearMonth.from(at), true).descendingMap().values()) {
+                TransactionView t = s.latestAt(userId, at);
+                if (t != null) return t;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    /** Pass the user's archived rows with {@code from <= createdAt < to} to the action, oldest first. */
+    public void forEach(Long userId, LocalDateTime from, LocalDateTime to, Consumer<TransactionView> action) {
+        if (segments.isEmpty() || !from.isBefore(to)) return;
+        try {
+            for (ArchiveSegment s : segments.subMap(YearMonth.from(from), true, YearMonth.from(to), true).values()) {
+                s.forEach(userId, from, to, action);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
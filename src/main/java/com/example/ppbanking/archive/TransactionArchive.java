@@ -0,0 +1,80 @@
+package com.example.ppbanking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of the transactions table: one {@link ArchiveSegment} file per archived month
+ * ({@code tx-<yyyy-MM>.seg} under app.archive.dir). Segments are opened at startup and whenever
+ * {@link com.example.ppbanking.service.TransactionArchiver} publishes a month; readers work from an
+ * immutable {@link ArchiveSnapshot}, so publishing never blocks them.
+ */
+@Slf4j
+@Component
+public class TransactionArchive implements Closeable {
+    private final Path dir;
+    private volatile ArchiveSnapshot current;
+
+    public TransactionArchive(@Value("${app.archive.dir:./data/archive}") Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        TreeMap<YearMonth, ArchiveSegment> segments = new TreeMap<>();
+        for (Path file : files()) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                // A month whose archiving was interrupted; its rows are still in the transactions table
+                Files.delete(file);
+            } else {
+                YearMonth month = YearMonth.parse(name.substring(3, 10));
+                segments.put(month, ArchiveSegment.open(file, month));
+            }
+        }
+        this.current = new ArchiveSnapshot(segments);
+        if (!segments.isEmpty()) {
+            log.info("Transaction archive: {} months up to {}", segments.size(), segments.lastKey());
+        }
+    }
+
+    public ArchiveSnapshot snapshot() {
+        return current;
+    }
+
+    /** Start writing a month that is not archived yet; hand the writer to {@link #publish} when complete. */
+    public ArchiveSegment.Writer writer(YearMonth month) throws IOException {
+        if (current.segments().containsKey(month)) throw new IllegalStateException(month + " is already archived");
+        return new ArchiveSegment.Writer(file(month));
+    }
+
+    /** Move a finished month into place and make it visible to new snapshots. */
+    public synchronized void publish(YearMonth month, ArchiveSegment.Writer writer) throws IOException {
+        ArchiveSegment segment = ArchiveSegment.open(writer.commit(), month);
+        TreeMap<YearMonth, ArchiveSegment> segments = new TreeMap<>(current.segments());
+        segments.put(month, segment);
+        current = new ArchiveSnapshot(segments);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (ArchiveSegment s : current.segments().values()) s.close();
+    }
+
+    private Path file(YearMonth month) {
+        return dir.resolve("tx-" + month + ".seg");
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().matches("tx-\\d{4}-\\d{2}\\.seg(\\.tmp)?")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ppbanking.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else (writes, and statements outside any
+ * transaction) to the primary pool. A read-only transaction pinned by {@link ReadYourWrites} stays on the
+ * primary. The decision is made when a connection is fetched, so this must sit behind a lazy proxy that
+ * fetches at the first statement, after the transaction has declared itself read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    HikariDataSource primary() {
+        return primary;
+    }
+
+    HikariDataSource replica() {
+        return replica;
+    }
+
+    /** Where a connection fetched now would go. */
+    @Override
+    public Target determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.primaryRequired()
+                ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ppbanking.datasource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-your-writes on top of replica routing, decided by the data rather than by time. Every change to a
+ * user's balance or history bumps their {@code users.version} in the same commit, so once the replica's
+ * copy of that version has caught up with the primary's, the replica holds everything the user wrote
+ * before the read began; until then the read stays on the primary. Nothing is remembered between requests,
+ * so it holds on every instance and however far the replica lags, and it fails closed: a user the replica
+ * does not have yet, or a row without a version, reads from the primary.
+ * <p>
+ * The cost is two primary-key lookups per routed read, one on each database. Writes made behind the
+ * application's back without bumping the version are not covered. A read opts in with {@link #readingFor}
+ * before its first query, which is enough because {@link ReplicaConfig} only picks the connection at the
+ * first statement. A no-op unless app.datasource.replica.enabled.
+ */
+@Component
+public class ReadYourWrites {
+    // Bound to a read-only transaction that has to stay on the primary; unbound when it completes
+    private static final Object PRIMARY = new Object();
+    private static final String VERSION = "select version from users where id = ?";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+
+    public ReadYourWrites(Optional<ReadWriteRoutingDataSource> routing) {
+        this.primary = routing.map(r -> new JdbcTemplate(r.primary())).orElse(null);
+        this.replica = routing.map(r -> new JdbcTemplate(r.replica())).orElse(null);
+    }
+
+    /** The current read-only transaction reads this user's data: keep it on the primary until the replica caught up. */
+    public void readingFor(Long userId) {
+        if (primary == null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return;
+        if (!primaryRequired() && !replicaIsCurrent(userId)) requirePrimary();
+    }
+
+    /**
+     * Keep the current read-only transaction on the primary regardless of any user's version, for reads that
+     * must agree with statements run outside it (which always go to the primary). Call before its first query.
+     */
+    public void requirePrimary() {
+        if (primary == null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly() || primaryRequired()) return;
+        TransactionSynchronizationManager.bindResource(PRIMARY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PRIMARY);
+            }
+        });
+    }
+
+    /** Whether a connection fetched now would go to the replica, i.e. what it reads may lag the primary. */
+    public boolean onReplica() {
+        return primary != null && TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !primaryRequired();
+    }
+
+    /** Whether the current transaction was pinned to the primary by {@link #readingFor}. */
+    static boolean primaryRequired() {
+        return TransactionSynchronizationManager.hasResource(PRIMARY);
+    }
+
+    // Primary first: any write that committed before this check is then covered by the version compared
+    private boolean replicaIsCurrent(Long userId) {
+        List<Long> onPrimary = primary.queryForList(VERSION, Long.class, userId);
+        if (onPrimary.isEmpty()) return true; // no such user, so nothing of theirs to wait for
+        Long written = onPrimary.get(0);
+        if (written == null) return false;
+        List<Long> onReplica = replica.queryForList(VERSION, Long.class, userId);
+        return !onReplica.isEmpty() && onReplica.get(0) != null && onReplica.get(0) >= written;
+    }
+}
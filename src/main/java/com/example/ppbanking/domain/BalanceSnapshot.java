@@ -0,0 +1,34 @@
+package com.example.ppbanking.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/** An account's ledger balance including every posting with {@code createdAt <= asOf}. */
+@Entity
+@Immutable
+@Table(name = "balance_snapshots", indexes = {
+        @Index(name = "idx_snapshot_account_asof", columnList = "accountId, asOf")
+})
+@Getter @NoArgsConstructor
+public class BalanceSnapshot {
+    @Id @PooledSequence("balance_snapshots_seq")
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private long balance;
+
+    @Column(nullable = false)
+    private LocalDateTime asOf;
+
+    public BalanceSnapshot(Long accountId, long balance, LocalDateTime asOf) {
+        this.accountId = accountId;
+        this.balance = balance;
+        this.asOf = asOf;
+    }
+}
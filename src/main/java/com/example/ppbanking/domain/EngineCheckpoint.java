@@ -0,0 +1,25 @@
+package com.example.ppbanking.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Highest transfer-engine sequence whose effects are in {@code users}/{@code transactions}. Single row,
+ * written in the same transaction as the projected rows, so it always matches them.
+ */
+@Entity
+@Table(name = "engine_checkpoint")
+@Getter @NoArgsConstructor
+public class EngineCheckpoint {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id = ID;
+
+    @Column(nullable = false)
+    private long projectedSeq;
+
+    public EngineCheckpoint(long projectedSeq) {
+        this.projectedSeq = projectedSeq;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ppbanking.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A completed idempotent request: {@code id} is "userId:Idempotency-Key", {@code fingerprint} identifies the
+ * operation and its arguments so a key reused for a different request is rejected instead of replayed.
+ * Written in the same transaction as the balance change it guards.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_created", columnList = "createdAt"))
+@Getter @NoArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+    @Id
+    @Column(length = 320)
+    private String id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 200)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    // Assigned ids make Spring Data merge (select + insert); this makes save() a plain persist instead,
+    // so a concurrent duplicate fails on the primary key rather than overwriting.
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyRecord(String id, Long userId, String fingerprint) {
+        this.id = id;
+        this.userId = userId;
+        this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ppbanking.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One side of a double-entry ledger entry: every {@link Transaction} yields postings whose amounts sum to
+ * zero (debits negative, credits positive). Money entering or leaving the bank is posted against the
+ * external account {@code 0}. Rows are never updated or deleted.
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_postings", indexes = {
+        // Balance tails are range scans of one account's postings after a snapshot's timestamp
+        @Index(name = "idx_posting_account_created", columnList = "accountId, createdAt")
+})
+@Getter @NoArgsConstructor
+public class LedgerPosting {
+    @Id @PooledSequence("ledger_postings_seq")
+    private Long id;
+
+    // Null for opening balances carried over from before the ledger was enabled
+    private Long txId;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    // Signed minor units: negative debits, positive credits
+    @Column(nullable = false)
+    private long amount;
+
+    // Same instant as the Transaction it belongs to
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public LedgerPosting(Long txId, Long accountId, long amount, LocalDateTime createdAt) {
+        this.txId = txId;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+}
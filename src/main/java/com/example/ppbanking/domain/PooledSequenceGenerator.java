@@ -0,0 +1,54 @@
+package com.example.ppbanking.domain;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * {@link SequenceStyleGenerator} for {@link PooledSequence}: takes the sequence name from the annotation and
+ * the increment from configuration, which a plain {@code @SequenceGenerator(allocationSize = ...)} cannot do.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    /** Hibernate setting carrying {@code app.ids.allocationSize} (see {@link AllocationSizeSetting}). */
+    static final String ALLOCATION_SIZE = "ppbanking.id.allocation_size";
+    static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private final String sequenceName;
+
+    public PooledSequenceGenerator(PooledSequence config) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Object size = serviceRegistry.requireService(ConfigurationService.class).getSettings().get(ALLOCATION_SIZE);
+        parameters.put(SEQUENCE_PARAM, sequenceName);
+        parameters.put(INCREMENT_PARAM, size == null ? String.valueOf(DEFAULT_ALLOCATION_SIZE) : size.toString());
+        parameters.put(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    /** Hands {@code app.ids.allocationSize} to Hibernate so the generator sees the same value as the migrations. */
+    @Component
+    static class AllocationSizeSetting implements HibernatePropertiesCustomizer {
+        private final int allocationSize;
+
+        AllocationSizeSetting(@Value("${app.ids.allocationSize:" + DEFAULT_ALLOCATION_SIZE + "}") int allocationSize) {
+            this.allocationSize = allocationSize;
+        }
+
+        @Override
+        public void customize(Map<String, Object> hibernateProperties) {
+            hibernateProperties.put(ALLOCATION_SIZE, allocationSize);
+        }
+    }
+}
@@ -1,15 +1,36 @@
 package com.example.ppbanking.domain;
 
+import com.example.ppbanking.dto.JsonMoney;
+import com.example.ppbanking.dto.TransactionView;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // History is read per side, newest first: these let each side be an ordered index range scan.
+        @Index(name = "idx_tx_sender_created", columnList = "senderId, createdAt, id"),
+        @Index(name = "idx_tx_receiver_created", columnList = "receiverId, createdAt, id"),
+        // TransactionArchiver finds, reads and deletes whole months by time
+        @Index(name = "idx_tx_created", columnList = "createdAt")
+})
+// History rows are read straight into the wire DTO; see TransactionRepository
+@SqlResultSetMapping(name = Transaction.VIEW_MAPPING, classes = @ConstructorResult(
+        targetClass = TransactionView.class, columns = {
+                @ColumnResult(name = "id", type = Long.class),
+                @ColumnResult(name = "sender_id", type = Long.class),
+                @ColumnResult(name = "receiver_id", type = Long.class),
+                @ColumnResult(name = "amount", type = Long.class),
+                @ColumnResult(name = "type", type = String.class),
+                @ColumnResult(name = "created_at", type = LocalDateTime.class),
+                @ColumnResult(name = "balance_after", type = Long.class)}))
 @Getter @Setter @NoArgsConstructor
 public class Transaction {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public static final String VIEW_MAPPING = "TransactionView";
+
+    @Id @PooledSequence("transactions_seq")
     private Long id;
 
     @Column(nullable = false)
@@ -18,12 +39,22 @@ public class Transaction {
     @Column(nullable = false)
     private Long receiverId;
 
+    // Minor units (cents)
+    @JsonMoney
     @Column(nullable = false)
-    private Double amount;
+    private long amount;
 
     @Column(nullable = false)
     private String type;
 
+    // Each side's balance right after this row was applied, written in the same transaction as the balance
+    // update (equal for deposits and withdrawals). Null on rows that predate the columns until
+    // BalanceBackfill has run.
+    private Long senderBalanceAfter;
+    private Long receiverBalanceAfter;
+
+    // Truncated to the column's microsecond precision so a history cursor built from an in-memory
+    // entity compares equal to the stored row.
     @Column(nullable = false)
-    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
 }
@@ -1,13 +1,15 @@
 package com.example.ppbanking.domain;
 
+import com.example.ppbanking.security.UserChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 @Getter @Setter @NoArgsConstructor
 public class User {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @PooledSequence("users_seq")
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -16,9 +18,26 @@ public class User {
     @Column(nullable = false)
     private String passwordHash;
 
+    // Minor units (cents)
     @Column(nullable = false)
-    private Double balance = 0.0;
+    private long balance;
 
     @Column(nullable = false)
     private String role = "USER";
+
+    // Optimistic lock stamp; the column default lets ddl-auto add it to tables that already hold rows.
+    // Left null on new instances: Spring Data treats a null version as "new" and persists instead of merging.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    // What authentication depends on, as last loaded or written; lets UserChangeListener skip balance saves
+    @Transient
+    private Credentials loadedCredentials;
+
+    public record Credentials(String username, String passwordHash, String role) {}
+
+    public Credentials credentials() {
+        return new Credentials(username, passwordHash, role);
+    }
 }
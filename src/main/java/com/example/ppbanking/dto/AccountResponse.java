@@ -1,7 +1,5 @@
 package com.example.ppbanking.dto;
 
-import com.example.ppbanking.domain.Transaction;
-
 import java.util.List;
 
-public record AccountResponse(Double balance, List<Transaction> history) {}
+public record AccountResponse(@JsonMoney long balance, List<TransactionView> history) {}
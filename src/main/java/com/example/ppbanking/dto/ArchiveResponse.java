@@ -0,0 +1,7 @@
+package com.example.ppbanking.dto;
+
+/**
+ * Outcome of an archiving run: months moved to the archive and the transactions they hold, and rows of
+ * earlier runs' months removed from the transactions table.
+ */
+public record ArchiveResponse(int months, long rowsArchived, long rowsPurged) {}
@@ -0,0 +1,4 @@
+package com.example.ppbanking.dto;
+
+/** Outcome of a balance-after backfill: accounts walked and transaction rows filled in. */
+public record BalanceBackfillResponse(long accounts, long rowsUpdated) {}
@@ -0,0 +1,3 @@
+package com.example.ppbanking.dto;
+
+public record BalanceResponse(@JsonMoney long balance) {}
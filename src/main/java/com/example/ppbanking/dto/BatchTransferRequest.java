@@ -0,0 +1,16 @@
+package com.example.ppbanking.dto;
+
+import com.example.ppbanking.service.BatchMode;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Transfers from the caller's account; mode defaults to ALL_OR_NOTHING. Items are deliberately not
+ * bean-validated: the batch checks each one itself, so PER_ITEM can report an invalid item instead of
+ * failing the whole request (ALL_OR_NOTHING still rejects it with 400).
+ */
+public record BatchTransferRequest(
+        BatchMode mode,
+        @NotEmpty List<TransferRequest> transfers
+) {}
@@ -0,0 +1,11 @@
+package com.example.ppbanking.dto;
+
+import java.util.List;
+
+/** Outcome of a batch transfer; items are in request order with status APPLIED or the rejection code. */
+public record BatchTransferResponse(int applied, int rejected, @JsonMoney long debited, List<Item> items) {
+
+    public static final String APPLIED = "APPLIED";
+
+    public record Item(int index, Long toUserId, @JsonMoney long amount, String status) {}
+}
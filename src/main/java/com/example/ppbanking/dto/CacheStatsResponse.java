@@ -0,0 +1,10 @@
+package com.example.ppbanking.dto;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public record CacheStatsResponse(long hits, long misses, double hitRate, long evictions, long loads) {
+
+    public static CacheStatsResponse of(CacheStats s) {
+        return new CacheStatsResponse(s.hitCount(), s.missCount(), s.hitRate(), s.evictionCount(), s.loadCount());
+    }
+}
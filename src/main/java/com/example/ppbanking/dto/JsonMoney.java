@@ -0,0 +1,79 @@
+package com.example.ppbanking.dto;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.math.BigDecimal;
+
+/**
+ * Marks a {@code long} amount held in minor units (cents). On the wire it stays a decimal with two
+ * fraction digits ({@code 1234} is written as {@code 12.34}); input with more than two decimals or
+ * more than 12 integer digits is rejected.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
+@JacksonAnnotationsInside
+@JsonSerialize(using = JsonMoney.Serializer.class)
+@JsonDeserialize(using = JsonMoney.Deserializer.class)
+public @interface JsonMoney {
+
+    long MAX_CENTS = 100_000_000_000_000L - 1; // 12 integer digits, 2 fraction digits
+
+    class Serializer extends JsonSerializer<Long> {
+        @Override
+        public void serialize(Long cents, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(BigDecimal.valueOf(cents, 2));
+        }
+    }
+
+    class Deserializer extends JsonDeserializer<Long> {
+        private static final BigDecimal MAX = BigDecimal.valueOf(MAX_CENTS);
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctx) throws IOException {
+            JsonToken token = p.currentToken();
+            BigDecimal value;
+            try {
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    value = p.getDecimalValue();
+                } else if (token == JsonToken.VALUE_STRING) {
+                    value = new BigDecimal(p.getText().trim());
+                } else {
+                    return (Long) ctx.handleUnexpectedToken(Long.class, p);
+                }
+            } catch (NumberFormatException e) {
+                return (Long) ctx.handleWeirdStringValue(Long.class, p.getText(), "not a decimal amount");
+            }
+
+            BigDecimal normalized = value.stripTrailingZeros();
+            if (normalized.scale() > 2) {
+                return (Long) ctx.handleWeirdNumberValue(Long.class, value, "at most 2 decimal places allowed");
+            }
+            // Range-checked as a decimal: longValue() would wrap anything past Long.MAX_VALUE into range
+            BigDecimal cents = normalized.movePointRight(2);
+            if (cents.abs().compareTo(MAX) > 0) {
+                return (Long) ctx.handleWeirdNumberValue(Long.class, value, "amount out of range");
+            }
+            return cents.longValueExact();
+        }
+
+        /** Missing or null amounts become 0, which {@code @Positive} then rejects with a field error. */
+        @Override
+        public Long getNullValue(DeserializationContext ctx) {
+            return 0L;
+        }
+    }
+}
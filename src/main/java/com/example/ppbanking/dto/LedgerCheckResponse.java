@@ -0,0 +1,16 @@
+package com.example.ppbanking.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/** Ledger vs. {@code users.balance}; consistent when there are no mismatches and postings net to zero. */
+public record LedgerCheckResponse(int accountsChecked, @JsonMoney long postingsTotal, List<Mismatch> mismatches) {
+
+    @JsonProperty
+    public boolean consistent() {
+        return postingsTotal == 0 && mismatches.isEmpty();
+    }
+
+    public record Mismatch(Long accountId, @JsonMoney long userBalance, @JsonMoney long ledgerBalance) {}
+}
@@ -0,0 +1,7 @@
+package com.example.ppbanking.dto;
+
+/**
+ * Principal cache figures. Before the cache every authenticated request cost two {@code users}
+ * queries (filter + controller); dbLookupsPerRequest shows what it costs now.
+ */
+public record PrincipalCacheStatsResponse(CacheStatsResponse cache, long dbLookups, double dbLookupsPerRequest) {}
@@ -0,0 +1,12 @@
+package com.example.ppbanking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One history row as served to clients. Read through a projection rather than loaded as a
+ * {@code Transaction} entity, so nothing is put in the persistence context or dirty-checked.
+ * {@code balanceAfter} is the requesting user's balance once the row was applied (null on rows not yet
+ * backfilled); the other side's balance is never exposed.
+ */
+public record TransactionView(Long id, Long senderId, Long receiverId, @JsonMoney long amount, String type,
+                              LocalDateTime createdAt, @JsonMoney Long balanceAfter) {}
@@ -0,0 +1,13 @@
+package com.example.ppbanking.dto;
+
+import java.util.List;
+
+/**
+ * Progress of a user import, final once {@code finished}. Every data line counts as processed and ends up
+ * either imported or rejected; {@code errors} lists the first rejected rows (up to the configured limit).
+ */
+public record UserImportResponse(boolean finished, long processed, long imported, long rejected, List<RowError> errors) {
+
+    /** A rejected row: its 1-based line in the input, and why. */
+    public record RowError(long line, String username, String code, String message) {}
+}
@@ -0,0 +1,92 @@
+package com.example.ppbanking.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated command slots, in the style of the LMAX
+ * Disruptor: producers claim a sequence with a CAS, fill the slot and publish it by writing the sequence
+ * into that slot's marker; the consumer reads slots in sequence order up to the first unpublished one.
+ * No locks on either side. An idle consumer parks and is unparked by the next publish.
+ */
+final class CommandRing {
+
+    static final class Command {
+        CommandType type;
+        long from;
+        long to;
+        long amount;
+        CompletableFuture<Void> done;
+    }
+
+    private final Command[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    // Highest sequence the consumer has finished with; only the consumer writes it
+    private volatile long consumed = -1;
+    private volatile Thread consumer;
+    private volatile boolean parked;
+
+    CommandRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new Command[size];
+        published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Command();
+            published.set(i, -1);
+        }
+        mask = size - 1;
+    }
+
+    /** False when the ring is full (the consumer is a whole ring behind). */
+    boolean offer(CommandType type, long from, long to, long amount, CompletableFuture<Void> done) {
+        long seq;
+        do {
+            seq = claimed.get() + 1;
+            if (seq - consumed > slots.length) return false;
+        } while (!claimed.compareAndSet(seq - 1, seq));
+
+        Command c = slots[(int) seq & mask];
+        c.type = type;
+        c.from = from;
+        c.to = to;
+        c.amount = amount;
+        c.done = done;
+        published.set((int) seq & mask, seq);
+        if (parked) LockSupport.unpark(consumer);
+        return true;
+    }
+
+    /** Consumer only: pass up to {@code max} published commands to the handler in order; returns how many. */
+    int drain(Consumer<Command> handler, int max) {
+        long next = consumed + 1;
+        int n = 0;
+        while (n < max && published.get((int) next & mask) == next) {
+            Command c = slots[(int) next & mask];
+            handler.accept(c);
+            c.done = null;
+            next++;
+            n++;
+        }
+        if (n > 0) consumed = next - 1;
+        return n;
+    }
+
+    boolean isEmpty() {
+        long next = consumed + 1;
+        return published.get((int) next & mask) != next;
+    }
+
+    /** Consumer only: park until a command is published or the timeout passes. */
+    void await(long timeoutNanos) {
+        consumer = Thread.currentThread();
+        parked = true;
+        // Re-check after announcing, so a publish racing with the announcement is not missed
+        if (isEmpty()) LockSupport.parkNanos(this, timeoutNanos);
+        parked = false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.ppbanking.engine;
+
+/** Commands the transfer engine applies; the ordinal is the type code stored in the write-ahead log. */
+public enum CommandType {
+    /** Make a newly registered account known to the engine. Not logged: recovery loads every account. */
+    OPEN,
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER
+}
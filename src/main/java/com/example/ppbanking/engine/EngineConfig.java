@@ -0,0 +1,41 @@
+package com.example.ppbanking.engine;
+
+import com.example.ppbanking.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Engine mode wiring. Recovery: seed the engine with {@code users} balances (which match the projection
+ * checkpoint), replay the write-ahead log past the checkpoint, then start accepting commands.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.engine.enabled", havingValue = "true")
+public class EngineConfig {
+
+    @Bean(destroyMethod = "close")
+    public WriteAheadLog writeAheadLog(@Value("${app.engine.walDir:./data/wal}") Path dir,
+                                       @Value("${app.engine.walSegmentBytes:67108864}") int segmentBytes,
+                                       @Value("${app.engine.fsync:true}") boolean fsync) throws IOException {
+        return WriteAheadLog.open(dir, segmentBytes, fsync);
+    }
+
+    @Bean(destroyMethod = "close")
+    public TransferEngine transferEngine(WriteAheadLog wal, EngineProjector projector, UserRepository users,
+                                         @Value("${app.engine.ringCapacity:65536}") int ringCapacity,
+                                         @Value("${app.engine.batchSize:4096}") int batchSize,
+                                         @Value("${app.engine.retryAfterSeconds:1}") long retryAfterSeconds)
+            throws IOException {
+        TransferEngine engine = new TransferEngine(wal, projector, ringCapacity, batchSize, retryAfterSeconds);
+        for (Object[] row : users.findAllBalances()) {
+            engine.load((Long) row[0], (Long) row[1]);
+        }
+        engine.recover(projector.projectedSeq());
+        engine.start();
+        return engine;
+    }
+}
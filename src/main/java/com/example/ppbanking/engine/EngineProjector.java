@@ -0,0 +1,175 @@
+package com.example.ppbanking.engine;
+
+import com.example.ppbanking.domain.EngineCheckpoint;
+import com.example.ppbanking.domain.Transaction;
+import com.example.ppbanking.repo.EngineCheckpointRepository;
+import com.example.ppbanking.repo.TransactionRepository;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.LedgerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Writes engine batches into {@code transactions} (plus ledger postings in ledger mode) and folds their
+ * balance changes into {@code users}, together with the checkpoint, on its own thread. Consecutive queued
+ * batches are merged up to {@code app.engine.projectionBatchRows} rows per database transaction. A failed
+ * write is retried until it succeeds, so the tables only ever trail the engine, never diverge from it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.engine.enabled", havingValue = "true")
+public class EngineProjector implements Consumer<List<EngineRecord>>, AutoCloseable {
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+
+    private final TransactionRepository txs;
+    private final UserRepository users;
+    private final LedgerService ledger;
+    private final EngineCheckpointRepository checkpoints;
+    private final TransactionTemplate tx;
+    private final WriteAheadLog wal;
+    private final BlockingQueue<List<EngineRecord>> queue;
+    private final int batchRows;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile long projectedSeq;
+
+    public EngineProjector(TransactionRepository txs, UserRepository users, LedgerService ledger,
+                           EngineCheckpointRepository checkpoints, TransactionTemplate tx, WriteAheadLog wal,
+                           @Value("${app.engine.projectionQueueCapacity:1024}") int queueCapacity,
+                           @Value("${app.engine.projectionBatchRows:5000}") int batchRows) {
+        this.txs = txs;
+        this.users = users;
+        this.ledger = ledger;
+        this.checkpoints = checkpoints;
+        this.tx = tx;
+        this.wal = wal;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchRows = batchRows;
+        this.projectedSeq = checkpoints.findById(EngineCheckpoint.ID).map(EngineCheckpoint::getProjectedSeq).orElse(0L);
+        this.worker = new Thread(this::run, "engine-projector");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** Sequence of the last command whose effects are committed to the database. */
+    public long projectedSeq() {
+        return projectedSeq;
+    }
+
+    /** Queue an applied batch; blocks while the queue is full. */
+    @Override
+    public void accept(List<EngineRecord> batch) {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a projection batch", e);
+        }
+    }
+
+    /** Project everything still queued, then stop. */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        worker.join();
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            List<EngineRecord> first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) continue;
+            List<EngineRecord> batch = new ArrayList<>(first);
+            List<EngineRecord> next;
+            while (batch.size() < batchRows && (next = queue.poll()) != null) batch.addAll(next);
+            projectUntilDone(batch);
+        }
+    }
+
+    private void projectUntilDone(List<EngineRecord> batch) {
+        // Replayed batches can overlap what a previous run already projected
+        List<EngineRecord> pending = batch.stream().filter(r -> r.seq() > projectedSeq).toList();
+        if (pending.isEmpty()) return;
+        while (true) {
+            try {
+                tx.executeWithoutResult(s -> project(pending));
+                projectedSeq = pending.get(pending.size() - 1).seq();
+                break;
+            } catch (Exception e) {
+                log.warn("Projecting engine commands up to seq {} failed, retrying", pending.get(pending.size() - 1).seq(), e);
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        // Outside the retry: the batch is committed, so projecting it again would apply it twice. A segment
+        // left behind here is only replayed and skipped, and the next successful truncate removes it
+        try {
+            wal.truncate(projectedSeq);
+        } catch (IOException e) {
+            log.warn("Deleting write-ahead log segments up to seq {} failed", projectedSeq, e);
+        }
+    }
+
+    private void project(List<EngineRecord> records) {
+        List<Transaction> rows = new ArrayList<>(records.size());
+        SortedMap<Long, Long> deltas = new TreeMap<>();
+        // Only this thread writes balances in engine mode, so the stored ones are exactly the state before
+        // this batch and replaying it in sequence order yields each row's balances-after
+        Set<Long> ids = new HashSet<>();
+        for (EngineRecord r : records) {
+            ids.add(r.from());
+            ids.add(r.to());
+        }
+        Map<Long, Long> running = new HashMap<>();
+        for (Object[] row : users.findBalances(ids)) running.put((Long) row[0], (Long) row[1]);
+        for (EngineRecord r : records) {
+            Transaction t = new Transaction();
+            t.setSenderId(r.from());
+            t.setReceiverId(r.to());
+            t.setAmount(r.amount());
+            t.setType(r.type().name());
+            t.setCreatedAt(r.createdAt());
+            if (r.type() != CommandType.DEPOSIT) {
+                deltas.merge(r.from(), -r.amount(), Long::sum);
+                running.computeIfPresent(r.from(), (id, b) -> b - r.amount());
+            }
+            if (r.type() != CommandType.WITHDRAW) {
+                deltas.merge(r.to(), r.amount(), Long::sum);
+                running.computeIfPresent(r.to(), (id, b) -> b + r.amount());
+            }
+            t.setSenderBalanceAfter(running.get(r.from()));
+            t.setReceiverBalanceAfter(running.get(r.to()));
+            rows.add(t);
+        }
+        txs.insertAll(rows);
+        ledger.post(rows);
+        List<Long> missing = users.creditAll(deltas);
+        if (!missing.isEmpty()) log.warn("Engine balances for unknown users were not projected: {}", missing);
+        checkpoints.save(new EngineCheckpoint(records.get(records.size() - 1).seq()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ppbanking.engine;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * One applied command, as written to the write-ahead log and handed to the projection. {@code seq} is
+ * gapless and increasing; {@code from}/{@code to} follow the transactions table (both are the account
+ * itself for deposits and withdrawals). {@code createdMicros} is the local wall-clock time in epoch micros.
+ */
+public record EngineRecord(long seq, CommandType type, long from, long to, long amount, long createdMicros) {
+
+    public LocalDateTime createdAt() {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(createdMicros, 1_000_000), 0, ZoneOffset.UTC)
+                .plus(Math.floorMod(createdMicros, 1_000_000), ChronoUnit.MICROS);
+    }
+
+    static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
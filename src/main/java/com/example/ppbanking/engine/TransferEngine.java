@@ -0,0 +1,318 @@
+package com.example.ppbanking.engine;
+
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.exception.TooBusyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Single-writer balance engine (app.engine.enabled). Balances live in a primitive array indexed by account
+ * id and are only ever written by one thread, which drains commands from a {@link CommandRing}, validates
+ * and applies them without locks to its own working copy, appends the applied ones to the
+ * {@link WriteAheadLog}, syncs once per drained batch and only then publishes the new balances to readers
+ * and acknowledges the commands, so no reader sees a balance the log could still lose. Applied batches are handed to a projection that writes
+ * them to the database asynchronously. After a crash, the projected balances plus a replay of the log
+ * from the projection's checkpoint rebuild the exact pre-crash state.
+ */
+@Slf4j
+public class TransferEngine implements AutoCloseable {
+    private static final long UNKNOWN = Long.MIN_VALUE;
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    private static final long MAX_ACCOUNTS = Integer.MAX_VALUE - 8L;
+
+    private final WriteAheadLog wal;
+    private final Consumer<List<EngineRecord>> projection;
+    private final CommandRing ring;
+    private final int batchSize;
+    private final long retryAfterSeconds;
+
+    // Published balances: replaced (grown) only by the writer; readers always see a complete array
+    private volatile AtomicLongArray balances = newBalances(1024);
+    // The writer's own copy, ahead of the published one by the batch not yet synced; same length
+    private long[] working = newWorking(1024, 0);
+    private long seq;
+    private volatile long durableSeq;
+    private volatile RuntimeException failure;
+    private volatile boolean running;
+    private Thread writer;
+
+    public TransferEngine(WriteAheadLog wal, Consumer<List<EngineRecord>> projection,
+                          int ringCapacity, int batchSize, long retryAfterSeconds) {
+        this.wal = wal;
+        this.projection = projection;
+        this.ring = new CommandRing(ringCapacity);
+        this.batchSize = batchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /** Seed an account's balance as of the projection checkpoint; before {@link #recover} and {@link #start}. */
+    public void load(long accountId, long balance) {
+        ensureCapacity(accountId);
+        working[(int) accountId] = balance;
+        balances.setPlain((int) accountId, balance);
+    }
+
+    /**
+     * Re-apply every logged command after {@code projectedSeq} on top of the loaded balances and hand them
+     * to the projection again. Returns the number of commands replayed.
+     */
+    public long recover(long projectedSeq) throws IOException {
+        List<EngineRecord> replayed = new ArrayList<>();
+        seq = wal.replay(projectedSeq, r -> {
+            applyLogged(r);
+            replayed.add(r);
+        });
+        publish(replayed);
+        durableSeq = seq;
+        for (int i = 0; i < replayed.size(); i += batchSize) {
+            projection.accept(List.copyOf(replayed.subList(i, Math.min(replayed.size(), i + batchSize))));
+        }
+        if (!replayed.isEmpty()) log.info("Replayed {} commands from the write-ahead log up to seq {}", replayed.size(), seq);
+        return replayed.size();
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        writer = new Thread(this::run, "transfer-engine");
+        writer.start();
+    }
+
+    /**
+     * Queue a command; the future completes once it is durable, or fails with the {@link ApiException}
+     * that rejected it. Fails fast with {@link TooBusyException} when the ring is full.
+     */
+    public CompletableFuture<Void> submit(CommandType type, long from, long to, long amount) {
+        if (failure != null) throw failure;
+        if (!running) throw unavailable();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (!ring.offer(type, from, to, amount, done)) {
+            throw new TooBusyException("Transfer engine is saturated, retry shortly", retryAfterSeconds);
+        }
+        return done;
+    }
+
+    /** {@link #submit} and wait, rethrowing a rejection as-is. */
+    public void execute(CommandType type, long from, long to, long amount) {
+        try {
+            submit(type, from, to, amount).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Make a newly created account known, waiting for ring space rather than failing: the account row is
+     * already committed, and recovery is the only other way the engine would learn about it. Rethrows the
+     * {@link ApiException} of an id the engine cannot hold.
+     */
+    public void open(long accountId) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        while (!ring.offer(CommandType.OPEN, accountId, accountId, 0, done)) {
+            if (failure != null) throw failure;
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /** Current balance including every acknowledged command, or empty for an unknown account. */
+    public OptionalLong balance(long accountId) {
+        AtomicLongArray b = balances;
+        if (accountId < 0 || accountId >= b.length()) return OptionalLong.empty();
+        long v = b.getAcquire((int) accountId);
+        return v == UNKNOWN ? OptionalLong.empty() : OptionalLong.of(v);
+    }
+
+    /** Highest sequence acknowledged as durable. */
+    public long durableSeq() {
+        return durableSeq;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        Thread w;
+        synchronized (this) {
+            running = false;
+            w = writer;
+        }
+        if (w != null) w.join();
+    }
+
+    private void run() {
+        List<EngineRecord> applied = new ArrayList<>(batchSize);
+        List<CompletableFuture<Void>> acks = new ArrayList<>(batchSize);
+        while (running || !ring.isEmpty()) {
+            long now = EngineRecord.micros(LocalDateTime.now());
+            int n;
+            try {
+                n = ring.drain(c -> apply(c, now, applied, acks), batchSize);
+                if (n > 0 && !applied.isEmpty()) wal.sync();
+            } catch (RuntimeException e) {
+                halt(e, acks);
+                return;
+            }
+            if (n == 0) {
+                ring.await(IDLE_PARK_NANOS);
+                continue;
+            }
+            if (!applied.isEmpty()) {
+                publish(applied);
+                durableSeq = seq;
+                acks.forEach(f -> f.complete(null));
+                // Blocks while the projection is saturated, which in turn fills the ring: backpressure
+                projection.accept(List.copyOf(applied));
+                applied.clear();
+                acks.clear();
+            }
+        }
+    }
+
+    private void apply(CommandRing.Command c, long now, List<EngineRecord> applied, List<CompletableFuture<Void>> acks) {
+        ApiException rejection = validate(c);
+        if (rejection != null) {
+            c.done.completeExceptionally(rejection);
+            return;
+        }
+        if (c.type == CommandType.OPEN) {
+            c.done.complete(null);
+            return;
+        }
+        EngineRecord r = new EngineRecord(seq + 1, c.type, c.from, c.to, c.amount, now);
+        try {
+            wal.append(r);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        applyLogged(r);
+        seq = r.seq();
+        applied.add(r);
+        acks.add(c.done);
+    }
+
+    // Writer only, against the working copy. Returns null when the command can be applied. Throwing here
+    // would stop the engine, so anything wrong with one command becomes that command's rejection
+    private ApiException validate(CommandRing.Command c) {
+        long[] w = working;
+        return switch (c.type) {
+            case OPEN -> {
+                if (c.to < 0 || c.to >= MAX_ACCOUNTS) {
+                    yield new ApiException(HttpStatus.BAD_REQUEST, "ACCOUNT_OUT_OF_RANGE", "Account id out of engine range: " + c.to);
+                }
+                try {
+                    ensureCapacity(c.to);
+                } catch (OutOfMemoryError e) {
+                    yield new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "ENGINE_FULL", "No memory to hold account " + c.to);
+                }
+                // Opening changes no balance, so it is published at once
+                if (working[(int) c.to] == UNKNOWN) {
+                    working[(int) c.to] = 0;
+                    balances.setRelease((int) c.to, 0);
+                }
+                yield null;
+            }
+            case DEPOSIT -> known(w, c.to) ? null : notFound("USER_NOT_FOUND", "User not found");
+            case WITHDRAW -> !known(w, c.from) ? notFound("USER_NOT_FOUND", "User not found")
+                    : w[(int) c.from] < c.amount ? insufficientFunds() : null;
+            case TRANSFER -> !known(w, c.from) ? notFound("SENDER_NOT_FOUND", "Sender not found")
+                    : !known(w, c.to) ? notFound("RECEIVER_NOT_FOUND", "Receiver not found")
+                    : w[(int) c.from] < c.amount ? insufficientFunds() : null;
+        };
+    }
+
+    private void applyLogged(EngineRecord r) {
+        long[] w = working;
+        switch (r.type()) {
+            case DEPOSIT -> w[(int) r.to()] += r.amount();
+            case WITHDRAW -> w[(int) r.from()] -= r.amount();
+            case TRANSFER -> {
+                w[(int) r.from()] -= r.amount();
+                w[(int) r.to()] += r.amount();
+            }
+            case OPEN -> { }
+        }
+    }
+
+    // Only once the records are in the log: copy the accounts they touched to the published balances
+    private void publish(List<EngineRecord> records) {
+        AtomicLongArray b = balances;
+        long[] w = working;
+        for (EngineRecord r : records) {
+            if (r.type() != CommandType.DEPOSIT) b.setRelease((int) r.from(), w[(int) r.from()]);
+            if (r.type() != CommandType.WITHDRAW) b.setRelease((int) r.to(), w[(int) r.to()]);
+        }
+    }
+
+    // Grows both copies, each from its own values; the published one is swapped in last
+    private void ensureCapacity(long accountId) {
+        if (accountId < 0 || accountId >= MAX_ACCOUNTS) {
+            throw new IllegalArgumentException("Account id out of engine range: " + accountId);
+        }
+        long[] w = working;
+        if (accountId < w.length) return;
+        int size = (int) Math.min(MAX_ACCOUNTS, Math.max(accountId + 1, w.length * 2L));
+        long[] grownWorking = newWorking(size, w.length);
+        System.arraycopy(w, 0, grownWorking, 0, w.length);
+        AtomicLongArray b = balances;
+        AtomicLongArray grown = newBalances(size);
+        for (int i = 0; i < b.length(); i++) grown.setPlain(i, b.getPlain(i));
+        working = grownWorking;
+        balances = grown;
+    }
+
+    // A write-ahead log failure leaves the working copy ahead of the log: stop and let a restart recover from it
+    private void halt(RuntimeException cause, List<CompletableFuture<Void>> acks) {
+        log.error("Transfer engine stopped: write-ahead log failed", cause);
+        failure = unavailable();
+        running = false;
+        acks.forEach(f -> f.completeExceptionally(failure));
+        while (ring.drain(c -> c.done.completeExceptionally(failure), Integer.MAX_VALUE) > 0) { }
+    }
+
+    private static boolean known(long[] w, long accountId) {
+        return accountId >= 0 && accountId < w.length && w[(int) accountId] != UNKNOWN;
+    }
+
+    private static AtomicLongArray newBalances(int size) {
+        AtomicLongArray b = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) b.setPlain(i, UNKNOWN);
+        return b;
+    }
+
+    // Entries from index from on start out UNKNOWN; the caller copies the ones before it
+    private static long[] newWorking(int size, int from) {
+        long[] w = new long[size];
+        Arrays.fill(w, from, size, UNKNOWN);
+        return w;
+    }
+
+    private static ApiException notFound(String code, String message) {
+        return new ApiException(HttpStatus.NOT_FOUND, code, message);
+    }
+
+    private static ApiException insufficientFunds() {
+        return new ApiException(HttpStatus.UNPROCESSABLE_ENTITY, "INSUFFICIENT_FUNDS", "Insufficient funds");
+    }
+
+    private static ApiException unavailable() {
+        return new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "ENGINE_UNAVAILABLE", "Transfer engine is not running");
+    }
+}
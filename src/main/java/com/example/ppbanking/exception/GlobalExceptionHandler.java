@@ -2,8 +2,11 @@ package com.example.ppbanking.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
@@ -43,6 +46,18 @@ public class GlobalExceptionHandler {
         return pd;
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail handleUnreadable(HttpMessageNotReadableException ex, HttpServletRequest req) {
+        // Malformed JSON, or a value the codecs reject (e.g. an amount with more than 2 decimals)
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Malformed request body");
+        pd.setTitle("Bad Request");
+        pd.setType(URI.create("about:blank"));
+        pd.setProperty("path", req.getRequestURI());
+        pd.setProperty("timestamp", OffsetDateTime.now().toString());
+        return pd;
+    }
+
     @ExceptionHandler(ApiException.class)
     public ProblemDetail handleApi(ApiException ex, HttpServletRequest req) {
         ProblemDetail pd = ProblemDetail.forStatusAndDetail(ex.getStatus(), ex.getMessage());
@@ -54,6 +69,13 @@ public class GlobalExceptionHandler {
         return pd;
     }
 
+    @ExceptionHandler(TooBusyException.class)
+    public ResponseEntity<ProblemDetail> handleTooBusy(TooBusyException ex, HttpServletRequest req) {
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(handleApi(ex, req));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
     public ProblemDetail handleDenied(AccessDeniedException ex, HttpServletRequest req) {
@@ -0,0 +1,15 @@
+package com.example.ppbanking.exception;
+
+import org.springframework.http.HttpStatus;
+
+/** 503 for work shed under load; the handler adds a Retry-After header. */
+public class TooBusyException extends ApiException {
+    private final long retryAfterSeconds;
+
+    public TooBusyException(String message, long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "TOO_BUSY", message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
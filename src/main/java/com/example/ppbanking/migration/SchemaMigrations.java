@@ -0,0 +1,107 @@
+package com.example.ppbanking.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * One-off data migrations for existing databases that ddl-auto cannot express (type changes,
+ * backfills). Runs before the EntityManagerFactory is built, so Hibernate's schema update sees the
+ * migrated tables. Every step detects whether it is still needed, so running it on a fresh or an
+ * already migrated database is a no-op.
+ */
+@Slf4j
+@Component
+public class SchemaMigrations implements InitializingBean {
+    private final JdbcTemplate jdbc;
+    private final int idAllocationSize;
+
+    public SchemaMigrations(DataSource dataSource, @Value("${app.ids.allocationSize:50}") int idAllocationSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.idAllocationSize = idAllocationSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        moneyToMinorUnits("users", "balance");
+        moneyToMinorUnits("transactions", "amount");
+        identityToSequence("users", "users_seq");
+        identityToSequence("transactions", "transactions_seq");
+    }
+
+    /** DOUBLE amounts in major units become BIGINT cents, converted in a single ALTER. */
+    private void moneyToMinorUnits(String table, String column) {
+        String type = columnType(table, column);
+        if (type == null || !(type.startsWith("DOUBLE") || type.equals("FLOAT") || type.equals("REAL"))) return;
+        log.info("Migrating {}.{} from {} to BIGINT minor units", table, column, type);
+        jdbc.execute("alter table " + table + " alter column " + column +
+                " set data type bigint using round(" + column + " * 100)");
+    }
+
+    /**
+     * IDENTITY ids become a pooled sequence: the sequence is created so that its first block starts after
+     * the highest existing id, the column's identity default is dropped, and an existing sequence whose
+     * increment no longer matches app.ids.allocationSize is realigned (Hibernate refuses a mismatch).
+     */
+    private void identityToSequence(String table, String sequence) {
+        if (columnType(table, "id") == null) return; // fresh database: Hibernate creates both
+        Long increment = sequenceIncrement(sequence);
+        if (increment == null) {
+            long maxId = jdbc.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+            // The pooled optimizer treats each sequence value as the top of a block of allocationSize ids
+            log.info("Creating {} for {} starting after id {}", sequence, table, maxId);
+            jdbc.execute("create sequence " + sequence + " start with " + (maxId + idAllocationSize) +
+                    " increment by " + idAllocationSize);
+        } else if (increment != idAllocationSize) {
+            // H2 keeps its precomputed next value on a plain increment change, which would make the next
+            // block overlap the last one handed out; restart above both that block and the stored ids.
+            long lastHandedOut = jdbc.queryForObject(
+                    "select base_value - increment from information_schema.sequences where lower(sequence_name) = ?",
+                    Long.class, sequence);
+            long maxId = jdbc.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+            long restart = Math.max(lastHandedOut, maxId) + idAllocationSize;
+            log.info("Changing {} increment from {} to {}, restarting at {}", sequence, increment, idAllocationSize, restart);
+            jdbc.execute("alter sequence " + sequence + " restart with " + restart + " increment by " + idAllocationSize);
+        }
+        if (isIdentity(table, "id")) {
+            log.info("Dropping identity default from {}.id", table);
+            jdbc.execute("alter table " + table + " alter column id drop identity");
+        }
+    }
+
+    private Long sequenceIncrement(String sequence) {
+        List<Long> increments = jdbc.queryForList(
+                "select increment from information_schema.sequences where lower(sequence_name) = ?",
+                Long.class, sequence);
+        return increments.isEmpty() ? null : increments.get(0);
+    }
+
+    private boolean isIdentity(String table, String column) {
+        List<String> flags = jdbc.queryForList(
+                "select is_identity from information_schema.columns where lower(table_name) = ? and lower(column_name) = ?",
+                String.class, table, column);
+        return !flags.isEmpty() && "YES".equalsIgnoreCase(flags.get(0));
+    }
+
+    /** Upper-cased SQL type of a column, or null when the table or column does not exist yet. */
+    private String columnType(String table, String column) {
+        List<String> types = jdbc.queryForList(
+                "select data_type from information_schema.columns where lower(table_name) = ? and lower(column_name) = ?",
+                String.class, table, column);
+        return types.isEmpty() ? null : types.get(0).toUpperCase();
+    }
+
+    /** Hibernate's ddl-auto must run against the migrated schema, so the EntityManagerFactory waits for us. */
+    @Component
+    static class EntityManagerFactoryDependsOnSchemaMigrations extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnSchemaMigrations() {
+            super(SchemaMigrations.class);
+        }
+    }
+}
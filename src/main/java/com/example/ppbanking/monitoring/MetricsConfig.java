@@ -0,0 +1,27 @@
+package com.example.ppbanking.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application meters live under {@code bank.*} next to the built-in http, jvm, hikaricp and hibernate ones,
+ * all scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Injected by name (accountOperations, authOperations)
+
+    /** Deposits, withdrawals and transfers, by operation and outcome. */
+    @Bean
+    public OutcomeTimers accountOperations(MeterRegistry registry) {
+        return new OutcomeTimers(registry, "bank.account.operations", "Balance-changing account operations");
+    }
+
+    /** Logins by outcome, including the BCrypt check. */
+    @Bean
+    public OutcomeTimers authOperations(MeterRegistry registry) {
+        return new OutcomeTimers(registry, "bank.auth.operations", "Authentication requests");
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ppbanking.monitoring;
+
+import com.example.ppbanking.exception.ApiException;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One timer name tagged by {@code operation} and {@code outcome}: {@code OK}, the {@link ApiException} code
+ * the work failed with (a small fixed set such as {@code INSUFFICIENT_FUNDS}), or {@code ERROR} for anything
+ * else. Each timer is registered on first use and then looked up in a map, so recording costs two clock
+ * reads and two lookups rather than a meter registration per call.
+ */
+public class OutcomeTimers {
+    public static final String OK = "OK";
+    public static final String ERROR = "ERROR";
+
+    private final MeterRegistry registry;
+    private final Clock clock;
+    private final String name;
+    private final String description;
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    public OutcomeTimers(MeterRegistry registry, String name, String description) {
+        this.registry = registry;
+        this.clock = registry.config().clock();
+        this.name = name;
+        this.description = description;
+    }
+
+    public void record(String operation, Runnable work) {
+        record(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T record(String operation, Supplier<T> work) {
+        long start = clock.monotonicTime();
+        String outcome = ERROR;
+        try {
+            T result = work.get();
+            outcome = OK;
+            return result;
+        } catch (ApiException e) {
+            outcome = e.getCode();
+            throw e;
+        } finally {
+            timer(operation, outcome).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Start time for {@link #stop}, for work that completes asynchronously. */
+    public long start() {
+        return clock.monotonicTime();
+    }
+
+    public void stop(String operation, long start, String outcome) {
+        timer(operation, outcome).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation, op -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, out -> Timer.builder(name)
+                        .description(description)
+                        .tag("operation", operation)
+                        .tag("outcome", out)
+                        .publishPercentileHistogram()
+                        .register(registry));
+    }
+
+    /** The outcome tag for work that failed with {@code failure} (possibly wrapped). */
+    public static String outcomeOf(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof ApiException api) return api.getCode();
+        }
+        return ERROR;
+    }
+}
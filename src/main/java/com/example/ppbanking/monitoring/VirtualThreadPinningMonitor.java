@@ -0,0 +1,87 @@
+package com.example.ppbanking.monitoring;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In virtual-thread mode, streams JFR {@code jdk.VirtualThreadPinned} events and logs each distinct
+ * application call site once. A pinned virtual thread keeps its carrier blocked (on JDK 21-23 that includes
+ * blocking inside {@code synchronized}, e.g. in older JDBC drivers), which silently caps concurrency
+ * at the carrier count.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "app.threads.pinningMonitor.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+    private static final int MAX_REPORTED_SITES = 100;
+
+    private final Duration threshold;
+    private final LongAdder pinned = new LongAdder();
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${app.threads.pinningMonitor.thresholdMillis:20}") long thresholdMillis) {
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @Override
+    public void start() {
+        RecordingStream rs = new RecordingStream();
+        rs.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        rs.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        rs.startAsync();
+        stream = rs;
+        log.info("Virtual-thread pinning monitor active (threshold {} ms)", threshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream rs = stream;
+        stream = null;
+        if (rs != null) rs.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    /** Pinning events longer than the threshold seen since startup. */
+    public long pinnedEvents() {
+        return pinned.sum();
+    }
+
+    private void onPinned(RecordedEvent e) {
+        pinned.increment();
+        String site = callSite(e);
+        if (reported.size() < MAX_REPORTED_SITES && reported.add(site)) {
+            log.warn("Virtual thread pinned for {} ms at {}", e.getDuration().toMillis(), site);
+        }
+    }
+
+    // First frame outside the JDK, which is where the pinning monitor or native call was entered from
+    private static String callSite(RecordedEvent e) {
+        if (e.getStackTrace() == null) return "<no stack trace>";
+        for (RecordedFrame f : e.getStackTrace().getFrames()) {
+            String type = f.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+            }
+        }
+        return "<jdk internal>";
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.ppbanking.repo;
+
+import com.example.ppbanking.domain.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    Optional<BalanceSnapshot> findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(Long accountId, LocalDateTime at);
+
+    /** Cutoff of the most recent snapshot run, or null before the first one. */
+    @Query("select max(s.asOf) from BalanceSnapshot s")
+    LocalDateTime findLatestAsOf();
+}
@@ -0,0 +1,7 @@
+package com.example.ppbanking.repo;
+
+import com.example.ppbanking.domain.EngineCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EngineCheckpointRepository extends JpaRepository<EngineCheckpoint, Integer> {
+}
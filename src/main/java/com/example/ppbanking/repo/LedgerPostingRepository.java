@@ -0,0 +1,40 @@
+package com.example.ppbanking.repo;
+
+import com.example.ppbanking.domain.LedgerPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface LedgerPostingRepository extends JpaRepository<LedgerPosting, Long> {
+
+    /** Net of one account's postings in (after, upTo]: an index range scan over just that tail. */
+    @Query("select coalesce(sum(p.amount), 0) from LedgerPosting p " +
+            "where p.accountId = :account and p.createdAt > :after and p.createdAt <= :upTo")
+    long sumBetween(@Param("account") Long accountId,
+                    @Param("after") LocalDateTime after,
+                    @Param("upTo") LocalDateTime upTo);
+
+    /** Per-account net of all postings in (after, upTo], as [accountId, sum] pairs, for snapshotting. */
+    @Query("select p.accountId, sum(p.amount) from LedgerPosting p " +
+            "where p.createdAt > :after and p.createdAt <= :upTo group by p.accountId")
+    List<Object[]> sumByAccountBetween(@Param("after") LocalDateTime after, @Param("upTo") LocalDateTime upTo);
+
+    /**
+     * Users whose {@code balance} differs from the net of all their postings, as [accountId, userBalance,
+     * ledgerBalance] triples: one grouped pass over the ledger joined to {@code users}, for the consistency check.
+     */
+    @Query("select u.id, u.balance, coalesce(p.total, 0) from User u left join " +
+            "(select lp.accountId as accountId, sum(lp.amount) as total from LedgerPosting lp group by lp.accountId) p " +
+            "on p.accountId = u.id where u.balance <> coalesce(p.total, 0)")
+    List<Object[]> findBalanceMismatches();
+
+    /** Double-entry invariant: zero across the whole ledger. */
+    @Query("select coalesce(sum(p.amount), 0) from LedgerPosting p")
+    long total();
+
+    @Query("select distinct p.accountId from LedgerPosting p")
+    List<Long> findAccountIds();
+}
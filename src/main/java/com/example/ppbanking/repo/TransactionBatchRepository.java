@@ -0,0 +1,12 @@
+package com.example.ppbanking.repo;
+
+import com.example.ppbanking.domain.Transaction;
+
+import java.util.List;
+
+/** Bulk writes that bypass the persistence context; mixed into {@link TransactionRepository}. */
+public interface TransactionBatchRepository {
+
+    /** Insert all rows as JDBC batches in the current transaction, assigning their ids. */
+    void insertAll(List<Transaction> rows);
+}
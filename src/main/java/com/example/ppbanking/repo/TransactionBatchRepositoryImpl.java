@@ -0,0 +1,53 @@
+package com.example.ppbanking.repo;
+
+import com.example.ppbanking.domain.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+class TransactionBatchRepositoryImpl implements TransactionBatchRepository {
+    private final JdbcTemplate jdbc;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${app.account.jdbcBatchSize:500}")
+    private int batchSize;
+
+    TransactionBatchRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void insertAll(List<Transaction> rows) {
+        // Ids come from the entity's own pooled generator, so they share blocks with em.persist and
+        // cost one sequence call per allocationSize rows; the rows then skip the persistence context.
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        var generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Transaction.class).getGenerator();
+        for (Transaction t : rows) {
+            t.setId((Long) generator.generate(session, t, null, EventType.INSERT));
+        }
+        jdbc.batchUpdate(
+                "insert into transactions (id, sender_id, receiver_id, amount, type, created_at, sender_balance_after, " +
+                        "receiver_balance_after) values (?, ?, ?, ?, ?, ?, ?, ?)",
+                rows, batchSize, (ps, t) -> {
+                    ps.setLong(1, t.getId());
+                    ps.setLong(2, t.getSenderId());
+                    ps.setLong(3, t.getReceiverId());
+                    ps.setLong(4, t.getAmount());
+                    ps.setString(5, t.getType());
+                    ps.setTimestamp(6, Timestamp.valueOf(t.getCreatedAt()));
+                    ps.setObject(7, t.getSenderBalanceAfter(), Types.BIGINT);
+                    ps.setObject(8, t.getReceiverBalanceAfter(), Types.BIGINT);
+                });
+    }
+}
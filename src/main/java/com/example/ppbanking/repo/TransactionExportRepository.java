@@ -0,0 +1,17 @@
+package com.example.ppbanking.repo;
+
+import com.example.ppbanking.dto.TransactionView;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/** Cursor-based reads for exports; mixed into {@link TransactionRepository}. */
+public interface TransactionExportRepository {
+
+    /**
+     * Pass each of the user's transactions with {@code from <= createdAt < to} to the action, oldest first.
+     * Rows are fetched from open cursors in fetch-size chunks and never collected, so memory use does not
+     * depend on how many there are. Run inside a transaction (some drivers only stream within one).
+     */
+    void forEachForUser(Long userId, LocalDateTime from, LocalDateTime to, Consumer<TransactionView> action);
+}
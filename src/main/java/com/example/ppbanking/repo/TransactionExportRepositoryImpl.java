@@ -0,0 +1,78 @@
+package com.example.ppbanking.repo;
+
+import com.example.ppbanking.dto.TransactionView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+class TransactionExportRepositoryImpl implements TransactionExportRepository {
+    // The two sides of TransactionRepository's history union, each an ordered range scan of its own index.
+    // They are merged here rather than by the database, whose ORDER BY over the union would buffer every row.
+    private static final String SENT = """
+            select id, sender_id, receiver_id, amount, type, created_at, sender_balance_after from transactions
+             where sender_id = ? and created_at >= ? and created_at < ?
+             order by created_at, id""";
+    private static final String RECEIVED = """
+            select id, sender_id, receiver_id, amount, type, created_at, receiver_balance_after from transactions
+             where receiver_id = ? and sender_id <> ? and created_at >= ? and created_at < ?
+             order by created_at, id""";
+
+    private final JdbcTemplate jdbc;
+
+    @Value("${app.history.exportFetchSize:1000}")
+    private int fetchSize = 1000;
+
+    TransactionExportRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void forEachForUser(Long userId, LocalDateTime from, LocalDateTime to, Consumer<TransactionView> action) {
+        jdbc.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement sent = con.prepareStatement(SENT);
+                 PreparedStatement received = con.prepareStatement(RECEIVED)) {
+                sent.setLong(1, userId);
+                sent.setTimestamp(2, Timestamp.valueOf(from));
+                sent.setTimestamp(3, Timestamp.valueOf(to));
+                received.setLong(1, userId);
+                received.setLong(2, userId);
+                received.setTimestamp(3, Timestamp.valueOf(from));
+                received.setTimestamp(4, Timestamp.valueOf(to));
+                sent.setFetchSize(fetchSize);
+                received.setFetchSize(fetchSize);
+                try (ResultSet a = sent.executeQuery(); ResultSet b = received.executeQuery()) {
+                    TransactionView x = next(a);
+                    TransactionView y = next(b);
+                    while (x != null || y != null) {
+                        if (y == null || (x != null && !after(x, y))) {
+                            action.accept(x);
+                            x = next(a);
+                        } else {
+                            action.accept(y);
+                            y = next(b);
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static boolean after(TransactionView x, TransactionView y) {
+        int c = x.createdAt().compareTo(y.createdAt());
+        return c > 0 || (c == 0 && x.id() > y.id());
+    }
+
+    private static TransactionView next(ResultSet rs) throws SQLException {
+        if (!rs.next()) return null;
+        return new TransactionView(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getString(5),
+                rs.getTimestamp(6).toLocalDateTime(), rs.getObject(7, Long.class));
+    }
+}
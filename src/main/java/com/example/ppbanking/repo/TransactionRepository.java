@@ -1,12 +1,77 @@
 package com.example.ppbanking.repo;
 
 import com.example.ppbanking.domain.Transaction;
+import com.example.ppbanking.dto.TransactionView;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    @Query("select t from Transaction t where t.senderId = :uid or t.receiverId = :uid order by t.createdAt desc")
-    List<Transaction> findAllForUser(@Param("uid") Long userId);
-}
\ No newline at end of file
+/**
+ * History queries are written as UNION ALL of a sender-side and a receiver-side branch instead of
+ * {@code sender = :uid or receiver = :uid}: each branch is an ordered scan of its own
+ * (side, createdAt, id) index, whereas the OR form forces a full scan plus sort. Deposits and
+ * withdrawals have sender = receiver, so the receiver branch excludes them to avoid duplicates.
+ * Each branch reads its own side's balance-after column as {@code balance_after}.
+ * Months past app.archive.hotMonths move to the {@link com.example.ppbanking.archive.TransactionArchive};
+ * the paged reads take a {@code since} bound (the archive horizon) so they never return a row that is also
+ * read from the archive, and prune each index range to the hot months.
+ * Rows come back as {@link TransactionView}s through {@link Transaction#VIEW_MAPPING}, never as entities.
+ */
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionBatchRepository,
+        TransactionExportRepository {
+    /** All of the user's rows still in the table, newest first; archived months are not included. */
+    @NativeQuery(sqlResultSetMapping = Transaction.VIEW_MAPPING, value = """
+            select * from (
+                select t.id, t.sender_id, t.receiver_id, t.amount, t.type, t.created_at, t.sender_balance_after balance_after
+                  from transactions t where t.sender_id = :uid
+                union all
+                select t.id, t.sender_id, t.receiver_id, t.amount, t.type, t.created_at, t.receiver_balance_after balance_after
+                  from transactions t where t.receiver_id = :uid and t.sender_id <> :uid
+            ) h order by h.created_at desc, h.id desc""")
+    List<TransactionView> findAllForUser(@Param("uid") Long userId);
+
+    /**
+     * Keyset page: rows at or after {@code since} and strictly older than (beforeTs, beforeId), newest first.
+     * Each branch is limited before the merge, so at most 2 * limit index entries are touched regardless of
+     * history length.
+     */
+    @NativeQuery(sqlResultSetMapping = Transaction.VIEW_MAPPING, value = """
+            select * from (
+                (select t.id, t.sender_id, t.receiver_id, t.amount, t.type, t.created_at,
+                        t.sender_balance_after balance_after from transactions t
+                  where t.sender_id = :uid and t.created_at >= :since
+                    and t.created_at <= :beforeTs and (t.created_at < :beforeTs or t.id < :beforeId)
+                  order by t.created_at desc, t.id desc limit :limit)
+                union all
+                (select t.id, t.sender_id, t.receiver_id, t.amount, t.type, t.created_at,
+                        t.receiver_balance_after balance_after from transactions t
+                  where t.receiver_id = :uid and t.sender_id <> :uid and t.created_at >= :since
+                    and t.created_at <= :beforeTs and (t.created_at < :beforeTs or t.id < :beforeId)
+                  order by t.created_at desc, t.id desc limit :limit)
+            ) h order by h.created_at desc, h.id desc limit :limit""")
+    List<TransactionView> findPageForUser(@Param("uid") Long userId,
+                                      @Param("since") LocalDateTime since,
+                                      @Param("beforeTs") LocalDateTime beforeTs,
+                                      @Param("beforeId") Long beforeId,
+                                      @Param("limit") int limit);
+
+    /**
+     * The user's balance after the newest row in [since, at]: the head of each side's index range, so two
+     * index seeks however long the history. Empty when the user had no transactions in that range; a
+     * present row can still hold null if it predates the balance-after columns and was not backfilled.
+     */
+    @NativeQuery(value = """
+            select h.balance_after from (
+                (select t.created_at, t.id, t.sender_balance_after balance_after from transactions t
+                  where t.sender_id = :uid and t.created_at >= :since and t.created_at <= :at
+                  order by t.created_at desc, t.id desc limit 1)
+                union all
+                (select t.created_at, t.id, t.receiver_balance_after balance_after from transactions t
+                  where t.receiver_id = :uid and t.sender_id <> :uid and t.created_at >= :since and t.created_at <= :at
+                  order by t.created_at desc, t.id desc limit 1)
+            ) h order by h.created_at desc, h.id desc limit 1""")
+    List<Long> findBalanceAt(@Param("uid") Long userId, @Param("since") LocalDateTime since,
+                             @Param("at") LocalDateTime at);
+}
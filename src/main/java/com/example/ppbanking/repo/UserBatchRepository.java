@@ -0,0 +1,22 @@
+package com.example.ppbanking.repo;
+
+import com.example.ppbanking.domain.User;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/** Bulk inserts and balance updates; mixed into {@link UserRepository}. */
+public interface UserBatchRepository {
+
+    /**
+     * Add each amount to its account as one JDBC batch, in ascending id order so row locks are taken in
+     * the same order as single transfers. Returns the ids that matched no row.
+     */
+    List<Long> creditAll(SortedMap<Long, Long> amountsById);
+
+    /**
+     * Insert new users as JDBC batches, assigning their ids, without going through the persistence context
+     * (so no entity listeners run). Usernames must be free; a duplicate fails the whole batch.
+     */
+    void insertAll(List<User> newUsers);
+}
@@ -0,0 +1,79 @@
+package com.example.ppbanking.repo;
+
+import com.example.ppbanking.domain.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+class UserBatchRepositoryImpl implements UserBatchRepository {
+    private final JdbcTemplate jdbc;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${app.account.jdbcBatchSize:500}")
+    private int batchSize;
+
+    UserBatchRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public List<Long> creditAll(SortedMap<Long, Long> amountsById) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(amountsById.entrySet());
+        // Same statement as UserRepository.credit, including the version bump for optimistic-mode writers
+        int[] counts = jdbc.batchUpdate(
+                "update users set balance = balance + ?, version = version + 1 where id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, entries.get(i).getValue());
+                        ps.setLong(2, entries.get(i).getKey());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                });
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) missing.add(entries.get(i).getKey());
+        }
+        return missing;
+    }
+
+    @Override
+    public void insertAll(List<User> newUsers) {
+        // Ids from the entity's pooled generator, as in TransactionBatchRepositoryImpl
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        var generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(User.class).getGenerator();
+        for (User u : newUsers) {
+            u.setId((Long) generator.generate(session, u, null, EventType.INSERT));
+            u.setVersion(0L);
+        }
+        jdbc.batchUpdate(
+                "insert into users (id, username, password_hash, balance, role, version) values (?, ?, ?, ?, ?, ?)",
+                newUsers, batchSize, (ps, u) -> {
+                    ps.setLong(1, u.getId());
+                    ps.setString(2, u.getUsername());
+                    ps.setString(3, u.getPasswordHash());
+                    ps.setLong(4, u.getBalance());
+                    ps.setString(5, u.getRole());
+                    ps.setLong(6, u.getVersion());
+                });
+    }
+}
@@ -1,11 +1,63 @@
 package com.example.ppbanking.repo;
 
 import com.example.ppbanking.domain.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserBatchRepository {
     Optional<User> findByUsername(String username);
-}
 
+    /** Which of the given ids exist, in one query. */
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /** Which of the given usernames are taken, in one query. */
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /** Every account as [id, balance] pairs, without loading entities. */
+    @Query("select u.id, u.balance from User u")
+    List<Object[]> findAllBalances();
+
+    // Rows that predate the version column have a null version; every write bumps it from there on
+    @Query("select new com.example.ppbanking.repo.VersionedBalance(u.balance, coalesce(u.version, 0)) " +
+            "from User u where u.id = :id")
+    Optional<VersionedBalance> findVersionedBalance(@Param("id") Long id);
+
+    @Query("select u.balance from User u where u.id = :id")
+    Optional<Long> findBalance(@Param("id") Long id);
+
+    /** [id, balance] pairs for the given ids, in one query. */
+    @Query("select u.id, u.balance from User u where u.id in :ids")
+    List<Object[]> findBalances(@Param("ids") Collection<Long> ids);
+
+    /** Load and row-lock ({@code SELECT ... FOR UPDATE}) until the surrounding transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
+    /*
+     * Single-statement balance changes: the database applies the arithmetic under its own row lock, so
+     * no read is needed first. Both bump the version so optimistic-mode writers still see the change.
+     * The persistence context is flushed before and cleared after, so no stale User survives the update.
+     */
+
+    /** Subtract {@code amount} only if the balance covers it; 0 rows means missing user or insufficient funds. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.balance = u.balance - :amount, u.version = u.version + 1 " +
+            "where u.id = :id and u.balance >= :amount")
+    int debit(@Param("id") Long id, @Param("amount") long amount);
+
+    /** Add {@code amount}; 0 rows means the user does not exist. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.balance = u.balance + :amount, u.version = u.version + 1 where u.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") long amount);
+}
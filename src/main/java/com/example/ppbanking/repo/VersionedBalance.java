@@ -0,0 +1,4 @@
+package com.example.ppbanking.repo;
+
+/** An account's balance together with the row version it was read at. */
+public record VersionedBalance(long balance, long version) {}
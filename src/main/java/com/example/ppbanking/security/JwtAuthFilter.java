@@ -1,22 +1,40 @@
 package com.example.ppbanking.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.*;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
-    private final UserDetailsService uds;
+    private final PrincipalCache principals;
+    // Trust uid/role claims of a verified access token instead of resolving the user (app.jwt.stateless).
+    // Role changes then take effect when the access token expires rather than immediately.
+    private final boolean stateless;
+    // Bearer-token handling per request (verification plus principal resolution); requests without one are not timed
+    private final Timer authenticated;
+    private final Timer rejected;
+
+    public JwtAuthFilter(JwtService jwtService, PrincipalCache principals,
+                         @Value("${app.jwt.stateless:false}") boolean stateless,
+                         MeterRegistry registry) {
+        this.jwtService = jwtService;
+        this.principals = principals;
+        this.stateless = stateless;
+        this.authenticated = authTimer(registry, "authenticated");
+        this.rejected = authTimer(registry, "rejected");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
@@ -24,18 +42,34 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String auth = req.getHeader("Authorization");
         if (auth != null && auth.startsWith("Bearer ")) {
             String token = auth.substring(7);
+            long start = System.nanoTime();
+            Timer outcome = rejected;
             try {
-                String username = jwtService.extractUsername(token);
+                Claims claims = jwtService.parse(token);
+                String username = claims.getSubject();
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails ud = uds.loadUserByUsername(username);
-                    UsernamePasswordAuthenticationToken at =
-                            new UsernamePasswordAuthenticationToken(ud, null, ud.getAuthorities());
-                    at.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
-                    SecurityContextHolder.getContext().setAuthentication(at);
+                    AppPrincipal principal = stateless ? jwtService.principalFrom(claims) : null;
+                    if (principal == null) principal = principals.get(username);
+                    if (principal != null) {
+                        UsernamePasswordAuthenticationToken at =
+                                new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
+                        at.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
+                        SecurityContextHolder.getContext().setAuthentication(at);
+                        outcome = authenticated;
+                    }
                 }
-            } catch (Exception ignored) {}
+            } catch (Exception ignored) {
+            } finally {
+                outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
         }
         chain.doFilter(req, res);
     }
-}
 
+    private static Timer authTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("bank.auth.token")
+                .description("Bearer token authentication in JwtAuthFilter")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
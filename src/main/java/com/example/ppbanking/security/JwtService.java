@@ -1,29 +1,74 @@
 package com.example.ppbanking.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Issues and verifies HS256 tokens. The signing key and parser are built once (both are immutable and
+ * thread-safe); verified claims are cached by SHA-256 of the token until the token's own expiry, so a
+ * client replaying the same access token skips signature checking and JSON parsing.
+ */
 @Service
 public class JwtService {
-    @Value("${app.jwt.secret}") private String secret;
-    @Value("${app.jwt.accessMillis}") private long accessMillis;
-    @Value("${app.jwt.refreshMillis}") private long refreshMillis;
+    static final String CLAIM_UID = "uid";
+    static final String CLAIM_ROLE = "role";
 
-    private Key key() { return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)); }
+    private final long accessMillis;
+    private final long refreshMillis;
+    private final Key key;
+    private final JwtParser parser;
+    // Shared across requests: callers must treat the returned Claims as read-only
+    private final Cache<ByteBuffer, Claims> verified;
+    // Signature checks only: cache hits are visible in the cache stats instead
+    private final Timer verifyValid;
+    private final Timer verifyExpired;
+    private final Timer verifyInvalid;
 
-    public String generateAccess(String username) {
+    public JwtService(@Value("${app.jwt.secret}") String secret,
+                      @Value("${app.jwt.accessMillis}") long accessMillis,
+                      @Value("${app.jwt.refreshMillis}") long refreshMillis,
+                      @Value("${app.jwt.verifiedCache.maxSize:10000}") long verifiedCacheSize,
+                      MeterRegistry registry) {
+        this.accessMillis = accessMillis;
+        this.refreshMillis = refreshMillis;
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiry(accessMillis))
+                .recordStats()
+                .build();
+        this.verifyValid = verifyTimer(registry, "valid");
+        this.verifyExpired = verifyTimer(registry, "expired");
+        this.verifyInvalid = verifyTimer(registry, "invalid");
+    }
+
+    /** Access token carrying the user id and role, so requests can be authenticated from the token alone. */
+    public String generateAccess(AppPrincipal principal) {
         Date now = new Date();
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(principal.username())
+                .claim(CLAIM_UID, principal.id())
+                .claim(CLAIM_ROLE, principal.role())
                 .setIssuedAt(now)
                 .setExpiration(new Date(now.getTime() + accessMillis))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -33,16 +78,80 @@ public class JwtService {
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(new Date(now.getTime() + refreshMillis))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /** Verify signature and expiry; throws {@link JwtException} otherwise. Invalid tokens are never cached. */
+    public Claims parse(String token) {
+        return verified.get(sha256(token), h -> verify(token));
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parse(token).getSubject();
+    }
+
+    /** Principal from verified claims, or null for tokens without uid/role (refresh or older access tokens). */
+    public AppPrincipal principalFrom(Claims claims) {
+        Number uid = claims.get(CLAIM_UID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (uid == null || role == null || claims.getSubject() == null) return null;
+        return new AppPrincipal(uid.longValue(), claims.getSubject(), role);
+    }
+
+    private Claims verify(String token) {
+        long start = System.nanoTime();
+        Timer outcome = verifyInvalid;
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            outcome = verifyValid;
+            return claims;
+        } catch (ExpiredJwtException e) {
+            outcome = verifyExpired;
+            throw e;
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("bank.jwt.verify")
+                .description("JWT signature and expiry verification")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public CacheStats verifiedCacheStats() {
+        return verified.stats();
+    }
+
+    private static ByteBuffer sha256(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE ships SHA-256
+        }
+    }
+
+    /** Keep a verified token exactly until its {@code exp}; tokens without one fall back to the access lifetime. */
+    private record UntilTokenExpiry(long defaultMillis) implements Expiry<ByteBuffer, Claims> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+            Date exp = claims.getExpiration();
+            long millis = exp == null ? defaultMillis : exp.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,95 @@
+package com.example.ppbanking.security;
+
+import com.example.ppbanking.exception.TooBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt off the request threads on a fixed pool with a bounded queue. BCrypt is deliberately slow
+ * (~100 ms at the default cost), so a login burst would otherwise occupy every Tomcat worker and starve
+ * cheap reads. When the queue is full the call fails fast with {@link TooBusyException} (503 + Retry-After)
+ * instead of queueing without limit.
+ */
+@Component
+public class PasswordHasher {
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final long retryAfterSeconds;
+    private final Timer encodeTime;
+    private final Timer matchesTime;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder encoder,
+                          @Value("${app.security.hasher.threads:0}") int threads,
+                          @Value("${app.security.hasher.queueCapacity:64}") int queueCapacity,
+                          @Value("${app.security.hasher.retryAfterSeconds:1}") long retryAfterSeconds,
+                          MeterRegistry registry) {
+        this.encoder = encoder;
+        this.retryAfterSeconds = retryAfterSeconds;
+        // BCrypt is pure CPU: more threads than cores only adds latency (0 = one per core)
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hasher-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // Time on a worker, excluding the wait in the queue (see the queued gauge)
+        this.encodeTime = hashTimer(registry, "encode");
+        this.matchesTime = hashTimer(registry, "matches");
+        this.rejected = Counter.builder("bank.password.rejected")
+                .description("Password operations shed because the hashing queue was full")
+                .register(registry);
+        Gauge.builder("bank.password.queued", this, PasswordHasher::queued)
+                .description("Password operations waiting for a hashing thread")
+                .register(registry);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encodeTime.record(() -> encoder.encode(rawPassword)));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String passwordHash) {
+        return submit(() -> matchesTime.record(() -> encoder.matches(rawPassword, passwordHash)));
+    }
+
+    /** Hashes waiting for a worker, for monitoring. */
+    public int queued() {
+        return pool.getQueue().size();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, pool);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooBusyException("Too many concurrent password operations, retry shortly", retryAfterSeconds);
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("bank.password.hash")
+                .description("BCrypt time per password operation")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.ppbanking.security;
+
+import com.example.ppbanking.repo.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, TTL-evicted map of username to {@link AppPrincipal}, so authenticating a request does not
+ * cost a {@code users} lookup each time. Entries are dropped when the user row changes
+ * (see {@link UserChangeListener}); the TTL bounds staleness for changes made outside JPA.
+ */
+@Component
+public class PrincipalCache {
+    private final UserRepository users;
+    private final Cache<String, AppPrincipal> cache;
+    private final LongAdder dbLookups = new LongAdder();
+
+    public PrincipalCache(UserRepository users,
+                          @Value("${app.security.principalCache.maxSize:10000}") long maxSize,
+                          @Value("${app.security.principalCache.ttlSeconds:300}") long ttlSeconds) {
+        this.users = users;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /** Principal for a username, loading it on a miss; null if no such user (misses are not cached). */
+    public AppPrincipal get(String username) {
+        AppPrincipal cached = cache.getIfPresent(username);
+        if (cached != null) return cached;
+        // Loaded outside the cache's compute: the query may flush pending entity changes, and the resulting
+        // UserChangeListener eviction must not re-enter the cache mid-computation.
+        AppPrincipal loaded = load(username);
+        if (loaded != null) cache.put(username, loaded);
+        return loaded;
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /** Number of {@code users} queries issued on behalf of request authentication. */
+    public long dbLookups() {
+        return dbLookups.sum();
+    }
+
+    private AppPrincipal load(String username) {
+        dbLookups.increment();
+        return users.findByUsername(username)
+                .map(u -> new AppPrincipal(u.getId(), u.getUsername(), u.getRole()))
+                .orElse(null);
+    }
+}
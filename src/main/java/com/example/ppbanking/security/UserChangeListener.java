@@ -0,0 +1,65 @@
+package com.example.ppbanking.security;
+
+import com.example.ppbanking.domain.User;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link User} that keeps {@link PrincipalCache} honest: an insert, a delete, or an update
+ * of the username, password hash or role evicts the username (both of them for a rename). Updates that only
+ * touch the balance, as every non-atomic balance mode makes, leave the cache alone. Eviction happens immediately and again when the transaction
+ * completes, so a concurrent request cannot re-cache the pre-commit row, and a principal cached from a row
+ * that was then rolled back does not survive. The cache is looked up lazily because
+ * Hibernate builds listeners while the EntityManagerFactory, which the cache depends on, is starting.
+ */
+@Component
+public class UserChangeListener {
+    private final ObjectProvider<PrincipalCache> principals;
+
+    public UserChangeListener(ObjectProvider<PrincipalCache> principals) {
+        this.principals = principals;
+    }
+
+    @PostLoad
+    public void loaded(User user) {
+        user.setLoadedCredentials(user.credentials());
+    }
+
+    @PostPersist
+    @PostRemove
+    public void changed(User user) {
+        user.setLoadedCredentials(user.credentials());
+        evict(user.getUsername());
+    }
+
+    @PostUpdate
+    public void updated(User user) {
+        User.Credentials before = user.getLoadedCredentials();
+        User.Credentials now = user.credentials();
+        user.setLoadedCredentials(now);
+        if (now.equals(before)) return;
+        // Unknown prior state (never loaded here) counts as changed
+        if (before != null && !before.username().equals(now.username())) evict(before.username());
+        evict(now.username());
+    }
+
+    private void evict(String username) {
+        PrincipalCache cache = principals.getIfAvailable();
+        if (cache == null) return;
+        cache.evict(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(username);
+                }
+            });
+        }
+    }
+}
@@ -1,19 +1,51 @@
 package com.example.ppbanking.service;
 
+import com.example.ppbanking.archive.ArchiveSnapshot;
+import com.example.ppbanking.archive.TransactionArchive;
+import com.example.ppbanking.datasource.ReadYourWrites;
 import com.example.ppbanking.domain.Transaction;
 import com.example.ppbanking.domain.User;
 import com.example.ppbanking.dto.AccountResponse;
+import com.example.ppbanking.dto.BatchTransferResponse;
+import com.example.ppbanking.dto.TransferRequest;
+import com.example.ppbanking.dto.TransactionPage;
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.engine.CommandType;
+import com.example.ppbanking.engine.TransferEngine;
 import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.monitoring.OutcomeTimers;
 import com.example.ppbanking.repo.TransactionRepository;
 import com.example.ppbanking.repo.UserRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
+/**
+ * Accounts, balances and transfers. All amounts are in minor units (cents). The read-only methods may be
+ * served by the replica (app.datasource.replica); each names the user it reads for, so a user whose latest
+ * changes the replica has not applied yet reads from the primary instead (see {@link ReadYourWrites}).
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -21,24 +53,61 @@ public class AccountService {
 
     private final UserRepository users;
     private final TransactionRepository txs;
+    private final TransactionArchive archive;
     private final PasswordEncoder encoder;
+    private final TransactionRetry retry;
+    private final LedgerService ledger;
+    private final BalanceCache balances;
+    private final OutcomeTimers accountOperations;
+    private final ReadYourWrites readYourWrites;
+
+    @Value("${app.history.pageSize:50}") private int defaultPageSize;
+    @Value("${app.history.maxPageSize:500}") private int maxPageSize;
+    @Value("${app.account.concurrency:atomic}") private ConcurrencyMode concurrency;
+    @Value("${app.account.maxBatchSize:10000}") private int maxBatchSize;
+
+    // Only with app.engine.enabled: balances are then owned by the in-memory engine, and users/transactions
+    // are its asynchronous projection
+    @Autowired(required = false) private TransferEngine engine;
 
     /** Create a user with an explicit role (USER or ADMIN). */
     public void register(String username, String rawPassword, String role) {
-        users.findByUsername(username).ifPresent(u -> {
-            throw new ApiException(HttpStatus.CONFLICT, "USERNAME_TAKEN", "Username is already taken");
-        });
+        registerHashed(username, encoder.encode(rawPassword), role);
+    }
+
+    /**
+     * Same as {@link #register} with the password already hashed, so callers can run BCrypt outside the
+     * transaction (see {@code PasswordHasher}) and hold a connection only for the insert.
+     */
+    public void registerHashed(String username, String passwordHash, String role) {
+        requireUsernameAvailable(username);
 
         User u = new User();
         u.setUsername(username);
-        u.setPasswordHash(encoder.encode(rawPassword));
-        u.setBalance(0.0);
+        u.setPasswordHash(passwordHash);
+        u.setBalance(0);
         u.setRole(normalizeRole(role)); // only USER or ADMIN are allowed
         users.save(u);
+        if (engine != null) {
+            Long id = u.getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    engine.open(id);
+                }
+            });
+        }
+    }
+
+    /** 409 if the username is taken. Reads the primary, so a registration that just committed counts. */
+    public void requireUsernameAvailable(String username) {
+        users.findByUsername(username).ifPresent(u -> {
+            throw new ApiException(HttpStatus.CONFLICT, "USERNAME_TAKEN", "Username is already taken");
+        });
     }
 
     /** Normalize role to USER or ADMIN; throw 400 otherwise. */
-    private String normalizeRole(String role) {
+    static String normalizeRole(String role) {
         if (role == null) return "USER";
         String r = role.trim().toUpperCase();
         if (!r.equals("USER") && !r.equals("ADMIN")) {
@@ -58,75 +127,387 @@ public class AccountService {
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "USER_NOT_FOUND", "User not found"));
     }
 
-    /** Get account balance and history for a user or 404. */
+    /** Get account balance and the most recent page of history for a user or 404. */
+    @Transactional(readOnly = true)
     public AccountResponse getAccount(Long userId) {
-        User u = users.findById(userId)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "USER_NOT_FOUND", "User not found"));
-        return new AccountResponse(u.getBalance(), txs.findAllForUser(userId));
+        readYourWrites.readingFor(userId);
+        long balance = getBalance(userId);
+        return new AccountResponse(balance, getHistory(userId, null, null).items());
     }
 
-    /** Deposit a positive amount into the user's balance. */
-    public void deposit(Long userId, double amount) {
-        if (amount <= 0) {
-            throw new ApiException(HttpStatus.BAD_REQUEST, "AMOUNT_INVALID", "Amount must be > 0");
+    /**
+     * Get the current balance only or 404. A cache hit needs no transaction, hence SUPPORTS; not read-only, so
+     * a miss is a single lookup on the primary rather than a replica read (see {@link BalanceCache}).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getBalance(Long userId) {
+        var balance = engine != null ? engine.balance(userId) : balances.get(userId);
+        return balance.orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "USER_NOT_FOUND", "User not found"));
+    }
+
+    /**
+     * Balance just after the user's last transaction at or before {@code at}. Ledger mode answers from the
+     * ledger; otherwise it is the stored balance-after of that row, found with an index seek, or in the
+     * archive when {@code at} is older than the hot months or the user had no hot rows by then. 409 while that
+     * row still awaits the balance backfill, 404 for an unknown user.
+     */
+    @Transactional(readOnly = true)
+    public long getBalanceAt(Long userId, LocalDateTime at) {
+        readYourWrites.readingFor(userId);
+        if (ledger.isEnabled()) return ledger.balanceAt(userId, at);
+        ArchiveSnapshot archived = archive.snapshot();
+        List<Long> latest = at.isBefore(archived.horizon()) ? List.of() : txs.findBalanceAt(userId, archived.horizon(), at);
+        if (latest.isEmpty()) {
+            TransactionView cold = archived.latestAt(userId, at);
+            if (cold != null) latest = Collections.singletonList(cold.balanceAfter());
         }
-        User u = users.findById(userId)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "USER_NOT_FOUND", "User not found"));
+        if (latest.isEmpty()) {
+            if (!users.existsById(userId)) {
+                throw new ApiException(HttpStatus.NOT_FOUND, "USER_NOT_FOUND", "User not found");
+            }
+            return 0;
+        }
+        Long balance = latest.get(0);
+        if (balance == null) {
+            throw new ApiException(HttpStatus.CONFLICT, "BALANCE_HISTORY_INCOMPLETE",
+                    "Balance history for that moment has not been backfilled yet");
+        }
+        return balance;
+    }
 
-        u.setBalance(u.getBalance() + amount);
-        users.save(u);
-        recordTx(userId, userId, amount, "DEPOSIT");
+    /**
+     * One keyset page of history, newest first. The cursor comes from a previous page's nextCursor;
+     * size falls back to the configured default and is capped at the configured maximum. Rows are read as
+     * {@link TransactionView} projections, so there are no entities to manage or dirty-check. Recent pages
+     * come from the transactions table alone; the archive is only opened once a page reaches past the hot
+     * months, and then only the months the page covers.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPage getHistory(Long userId, String cursor, Integer size) {
+        readYourWrites.readingFor(userId);
+        HistoryCursor from = HistoryCursor.decode(cursor);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+
+        // Fetch one extra row to learn whether another page exists without a count query.
+        ArchiveSnapshot archived = archive.snapshot();
+        List<TransactionView> rows = from.createdAt().isBefore(archived.horizon()) ? List.of()
+                : txs.findPageForUser(userId, archived.horizon(), from.createdAt(), from.id(), pageSize + 1);
+        if (rows.size() <= pageSize) {
+            // Archived rows are all older than hot ones, so the archive continues from the same cursor
+            List<TransactionView> older = archived.page(userId, from.createdAt(), from.id(), pageSize + 1 - rows.size());
+            if (!older.isEmpty()) {
+                rows = new ArrayList<>(rows);
+                rows.addAll(older);
+            }
+        }
+        if (rows.size() <= pageSize) {
+            return new TransactionPage(rows, null);
+        }
+        List<TransactionView> page = rows.subList(0, pageSize);
+        return new TransactionPage(page, HistoryCursor.after(page.get(pageSize - 1)).encode());
+    }
+
+    /*
+     * Mutations below own their transaction boundary through TransactionRetry (hence SUPPORTS rather
+     * than the class-level REQUIRED), so an optimistic conflict can be retried from a clean state.
+     * Each is timed as bank.account.operations, tagged with the outcome (OK or the ApiException code).
+     */
+
+    /** Deposit a positive amount into the user's balance. */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void deposit(Long userId, long amount) {
+        accountOperations.record("deposit", () -> applyDeposit(userId, amount));
     }
 
     /** Withdraw a positive amount if sufficient funds exist. */
-    public void withdraw(Long userId, double amount) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void withdraw(Long userId, long amount) {
+        accountOperations.record("withdraw", () -> applyWithdraw(userId, amount));
+    }
+
+    /** Transfer a positive amount from one user to another. */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void transfer(Long fromId, Long toId, long amount) {
+        accountOperations.record("transfer", () -> applyTransfer(fromId, toId, amount));
+    }
+
+    private void applyDeposit(Long userId, long amount) {
         if (amount <= 0) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "AMOUNT_INVALID", "Amount must be > 0");
         }
-        User u = users.findById(userId)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "USER_NOT_FOUND", "User not found"));
-
-        if (u.getBalance() < amount) {
-            throw new ApiException(HttpStatus.UNPROCESSABLE_ENTITY, "INSUFFICIENT_FUNDS", "Insufficient funds");
+        if (engine != null) {
+            engine.execute(CommandType.DEPOSIT, userId, userId, amount);
+            return;
         }
+        retry.run(() -> {
+            long after;
+            if (concurrency == ConcurrencyMode.ATOMIC) {
+                credit(userId, amount, "USER_NOT_FOUND", "User not found");
+                after = balanceOf(userId);
+            } else {
+                User u = loadForUpdate(userId, "USER_NOT_FOUND", "User not found");
+                u.setBalance(u.getBalance() + amount);
+                users.save(u);
+                after = u.getBalance();
+            }
+            recordTx(userId, userId, amount, "DEPOSIT", after, after);
+        });
+        balancesChanged(List.of(userId));
+    }
 
-        u.setBalance(u.getBalance() - amount);
-        users.save(u);
-        recordTx(userId, userId, amount, "WITHDRAW");
+    private void applyWithdraw(Long userId, long amount) {
+        if (amount <= 0) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "AMOUNT_INVALID", "Amount must be > 0");
+        }
+        if (engine != null) {
+            engine.execute(CommandType.WITHDRAW, userId, userId, amount);
+            return;
+        }
+        retry.run(() -> {
+            long after;
+            if (concurrency == ConcurrencyMode.ATOMIC) {
+                debit(userId, amount, "USER_NOT_FOUND", "User not found");
+                after = balanceOf(userId);
+            } else {
+                User u = loadForUpdate(userId, "USER_NOT_FOUND", "User not found");
+                if (u.getBalance() < amount) {
+                    throw new ApiException(HttpStatus.UNPROCESSABLE_ENTITY, "INSUFFICIENT_FUNDS", "Insufficient funds");
+                }
+                u.setBalance(u.getBalance() - amount);
+                users.save(u);
+                after = u.getBalance();
+            }
+            recordTx(userId, userId, amount, "WITHDRAW", after, after);
+        });
+        balancesChanged(List.of(userId));
     }
 
-    /** Transfer a positive amount from one user to another. */
-    public void transfer(Long fromId, Long toId, double amount) {
+    private void applyTransfer(Long fromId, Long toId, long amount) {
         if (Objects.equals(fromId, toId)) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "SELF_TRANSFER", "Cannot transfer to the same account");
         }
         if (amount <= 0) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "AMOUNT_INVALID", "Amount must be > 0");
         }
+        if (engine != null) {
+            engine.execute(CommandType.TRANSFER, fromId, toId, amount);
+            return;
+        }
+        retry.run(() -> {
+            // Row locks (pessimistic and atomic modes) are always taken lowest id first, so two
+            // opposite transfers between the same pair cannot deadlock.
+            if (concurrency == ConcurrencyMode.ATOMIC) {
+                if (fromId < toId) {
+                    debit(fromId, amount, "SENDER_NOT_FOUND", "Sender not found");
+                    credit(toId, amount, "RECEIVER_NOT_FOUND", "Receiver not found");
+                } else {
+                    credit(toId, amount, "RECEIVER_NOT_FOUND", "Receiver not found");
+                    debit(fromId, amount, "SENDER_NOT_FOUND", "Sender not found");
+                }
+                Map<Long, Long> after = balancesOf(List.of(fromId, toId));
+                recordTx(fromId, toId, amount, "TRANSFER", after.get(fromId), after.get(toId));
+                return;
+            }
+
+            User from, to;
+            if (fromId < toId) {
+                from = loadForUpdate(fromId, "SENDER_NOT_FOUND", "Sender not found");
+                to = loadForUpdate(toId, "RECEIVER_NOT_FOUND", "Receiver not found");
+            } else {
+                to = loadForUpdate(toId, "RECEIVER_NOT_FOUND", "Receiver not found");
+                from = loadForUpdate(fromId, "SENDER_NOT_FOUND", "Sender not found");
+            }
+
+            if (from.getBalance() < amount) {
+                throw new ApiException(HttpStatus.UNPROCESSABLE_ENTITY, "INSUFFICIENT_FUNDS", "Insufficient funds");
+            }
+
+            from.setBalance(from.getBalance() - amount);
+            to.setBalance(to.getBalance() + amount);
+            users.save(from);
+            users.save(to);
+            recordTx(fromId, toId, amount, "TRANSFER", from.getBalance(), to.getBalance());
+        });
+        balancesChanged(List.of(fromId, toId));
+    }
+
+    /**
+     * Many transfers from one account in a single transaction. Receivers are checked with one query, the
+     * sender is debited once for the total and each receiver credited once for its sum, all in ascending id
+     * order (the same lock order as {@link #transfer}); history rows go in as JDBC batches. Uses conditional
+     * statements whatever the concurrency mode: if the sender's balance moves between the read and the
+     * debit, the whole batch is retried. Items are validated here rather than by bean validation, so PER_ITEM
+     * reports a malformed item (RECEIVER_INVALID, AMOUNT_INVALID) like any other rejection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BatchTransferResponse transferBatch(Long fromId, List<TransferRequest> transfers, BatchMode mode) {
+        if (transfers.size() > maxBatchSize) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "BATCH_TOO_LARGE",
+                    "At most " + maxBatchSize + " transfers per batch");
+        }
+        if (engine != null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "BATCH_UNSUPPORTED", "Batch transfers are not available in engine mode");
+        }
+        BatchMode m = mode == null ? BatchMode.ALL_OR_NOTHING : mode;
+        BatchTransferResponse result = retry.execute(() -> applyBatch(fromId, transfers, m));
+        if (result.applied() > 0) {
+            Set<Long> changed = new HashSet<>(List.of(fromId));
+            for (BatchTransferResponse.Item item : result.items()) {
+                if (item.status().equals(BatchTransferResponse.APPLIED)) changed.add(item.toUserId());
+            }
+            balancesChanged(changed);
+        }
+        return result;
+    }
 
-        User from = users.findById(fromId)
+    private BatchTransferResponse applyBatch(Long fromId, List<TransferRequest> transfers, BatchMode mode) {
+        long balance = users.findBalance(fromId)
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "SENDER_NOT_FOUND", "Sender not found"));
-        User to = users.findById(toId)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "RECEIVER_NOT_FOUND", "Receiver not found"));
+        Set<Long> receivers = new HashSet<>();
+        for (TransferRequest t : transfers) {
+            if (t != null && t.toUserId() != null) receivers.add(t.toUserId());
+        }
+        Set<Long> existing = receivers.isEmpty() ? Set.of() : new HashSet<>(users.findExistingIds(receivers));
 
-        if (from.getBalance() < amount) {
+        List<BatchTransferResponse.Item> items = new ArrayList<>(transfers.size());
+        SortedMap<Long, Long> credits = new TreeMap<>();
+        List<TransferRequest> accepted = new ArrayList<>();
+        long debited = 0;
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequest t = transfers.get(i);
+            String status = BatchTransferResponse.APPLIED;
+            if (t == null || t.toUserId() == null || t.toUserId() <= 0) status = "RECEIVER_INVALID";
+            else if (Objects.equals(fromId, t.toUserId())) status = "SELF_TRANSFER";
+            else if (t.amount() <= 0) status = "AMOUNT_INVALID";
+            else if (!existing.contains(t.toUserId())) status = "RECEIVER_NOT_FOUND";
+            else if (balance - debited < t.amount()) status = "INSUFFICIENT_FUNDS";
+
+            if (status.equals(BatchTransferResponse.APPLIED)) {
+                debited += t.amount();
+                credits.merge(t.toUserId(), t.amount(), Long::sum);
+                accepted.add(t);
+            } else if (mode == BatchMode.ALL_OR_NOTHING) {
+                throw batchItemRejected(i, status);
+            }
+            items.add(new BatchTransferResponse.Item(i, t == null ? null : t.toUserId(), t == null ? 0 : t.amount(), status));
+        }
+
+        if (debited > 0) {
+            // Receivers with lower ids than the sender are locked before it, the rest after
+            List<Long> missing = new ArrayList<>(users.creditAll(credits.headMap(fromId)));
+            if (users.debit(fromId, debited) == 0) {
+                throw new OptimisticLockingFailureException("Sender balance changed during batch transfer");
+            }
+            missing.addAll(users.creditAll(credits.tailMap(fromId)));
+            if (!missing.isEmpty()) {
+                // A receiver was deleted after the existence check; retry re-validates from scratch
+                throw new OptimisticLockingFailureException("Receivers disappeared during batch transfer: " + missing);
+            }
+            // Built only now, under the locks, so no row is stamped earlier than a write its balances-after include
+            List<Transaction> rows = new ArrayList<>(accepted.size());
+            for (TransferRequest t : accepted) rows.add(newTx(fromId, t.toUserId(), t.amount(), "TRANSFER"));
+            setBalancesAfter(fromId, rows, credits.keySet());
+            txs.insertAll(rows);
+            ledger.post(rows);
+        }
+        return new BatchTransferResponse(accepted.size(), transfers.size() - accepted.size(), debited, items);
+    }
+
+    private static ApiException batchItemRejected(int index, String code) {
+        HttpStatus status = switch (code) {
+            case "RECEIVER_NOT_FOUND" -> HttpStatus.NOT_FOUND;
+            case "INSUFFICIENT_FUNDS" -> HttpStatus.UNPROCESSABLE_ENTITY;
+            default -> HttpStatus.BAD_REQUEST;
+        };
+        return new ApiException(status, code, "Transfer #" + index + " rejected: " + code);
+    }
+
+    /**
+     * Fill in each row's balances-after from the final balances, walking the batch newest to oldest and
+     * undoing one row at a time. The final balances are read under the row locks the batch's updates took,
+     * so they include any change another transaction committed between the first read and the debit.
+     */
+    private void setBalancesAfter(Long fromId, List<Transaction> rows, Collection<Long> receivers) {
+        List<Long> ids = new ArrayList<>(receivers);
+        ids.add(fromId);
+        Map<Long, Long> running = balancesOf(ids);
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            Transaction t = rows.get(i);
+            long sender = running.get(fromId);
+            long receiver = running.get(t.getReceiverId());
+            t.setSenderBalanceAfter(sender);
+            t.setReceiverBalanceAfter(receiver);
+            running.put(fromId, sender + t.getAmount());
+            running.put(t.getReceiverId(), receiver - t.getAmount());
+        }
+    }
+
+    /** Conditional single-statement debit; on 0 rows, tells a missing account (404) from a short one (422). */
+    private void debit(Long id, long amount, String notFoundCode, String notFoundMessage) {
+        if (users.debit(id, amount) == 0) {
+            if (!users.existsById(id)) {
+                throw new ApiException(HttpStatus.NOT_FOUND, notFoundCode, notFoundMessage);
+            }
             throw new ApiException(HttpStatus.UNPROCESSABLE_ENTITY, "INSUFFICIENT_FUNDS", "Insufficient funds");
         }
+    }
 
-        from.setBalance(from.getBalance() - amount);
-        to.setBalance(to.getBalance() + amount);
-        users.save(from);
-        users.save(to);
-        recordTx(fromId, toId, amount, "TRANSFER");
+    /** Single-statement credit, or 404 if the account does not exist. */
+    private void credit(Long id, long amount, String notFoundCode, String notFoundMessage) {
+        if (users.credit(id, amount) == 0) {
+            throw new ApiException(HttpStatus.NOT_FOUND, notFoundCode, notFoundMessage);
+        }
     }
 
-    /** Persist a transaction record. */
-    private void recordTx(Long senderId, Long receiverId, double amount, String type) {
+    // After a single-statement update the row stays locked until commit, so this reads exactly its result
+    private long balanceOf(Long id) {
+        return users.findBalance(id).orElseThrow();
+    }
+
+    private Map<Long, Long> balancesOf(Collection<Long> ids) {
+        Map<Long, Long> byId = new HashMap<>();
+        for (Object[] row : users.findBalances(ids)) byId.put((Long) row[0], (Long) row[1]);
+        return byId;
+    }
+
+    /** Load an account for modification according to the configured concurrency mode, or 404. */
+    private User loadForUpdate(Long id, String notFoundCode, String notFoundMessage) {
+        var user = concurrency == ConcurrencyMode.PESSIMISTIC ? users.findByIdForUpdate(id) : users.findById(id);
+        return user.orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, notFoundCode, notFoundMessage));
+    }
+
+    /**
+     * Invalidate cached balances. A mutation that committed its own transaction is visible already; inside
+     * a caller's transaction the entries are dropped now (so reads in that transaction see its writes) and
+     * again when it completes, so nothing read mid-transaction outlives a commit or a rollback.
+     */
+    private void balancesChanged(Collection<Long> ids) {
+        ids.forEach(balances::invalidate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(balances::invalidate);
+                }
+            });
+        }
+    }
+
+    /** Persist a transaction record with both sides' resulting balances, plus its ledger postings in ledger mode. */
+    private void recordTx(Long senderId, Long receiverId, long amount, String type, long senderAfter, long receiverAfter) {
+        Transaction t = newTx(senderId, receiverId, amount, type);
+        t.setSenderBalanceAfter(senderAfter);
+        t.setReceiverBalanceAfter(receiverAfter);
+        txs.save(t);
+        ledger.post(List.of(t));
+    }
+
+    private static Transaction newTx(Long senderId, Long receiverId, long amount, String type) {
         Transaction t = new Transaction();
         t.setSenderId(senderId);
         t.setReceiverId(receiverId);
         t.setAmount(amount);
         t.setType(type);
-        txs.save(t);
+        return t;
     }
 }
@@ -0,0 +1,166 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.dto.BalanceBackfillResponse;
+import com.example.ppbanking.exception.ApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fills in {@code sender_balance_after}/{@code receiver_balance_after} on transactions written before those
+ * columns existed ({@code POST /admin/transactions/backfill-balances}). Accounts with a missing value are
+ * visited in id order. For each, the account row is locked just long enough to read its balance and its
+ * newest transaction: every row up to that one is final, and rows after it carry their own values. That
+ * history is then walked newest first in keyset pages, each in its own short transaction, undoing one row
+ * at a time from the balance. A row that already holds a value resets the running balance to it, since that
+ * value was written together with the balance update. Only missing values are written, so the job can be
+ * stopped and rerun at any point. One run at a time.
+ */
+@Slf4j
+@Service
+public class BalanceBackfill {
+    private static final long LOG_EVERY_ACCOUNTS = 10_000;
+
+    private static final String PENDING_ACCOUNTS = """
+            select u.id from users u
+             where u.id > ?
+               and (exists (select 1 from transactions t where t.sender_id = u.id and t.sender_balance_after is null)
+                 or exists (select 1 from transactions t where t.receiver_id = u.id and t.receiver_balance_after is null))
+             order by u.id limit ?""";
+    private static final String NEWEST = """
+            select h.created_at, h.id from (
+                (select created_at, id from transactions where sender_id = ? order by created_at desc, id desc limit 1)
+                union all
+                (select created_at, id from transactions where receiver_id = ? order by created_at desc, id desc limit 1)
+            ) h order by h.created_at desc, h.id desc limit 1""";
+    // Same shape as TransactionRepository.findPageForUser: rows strictly older than (ts, id), newest first
+    private static final String PAGE = """
+            select * from (
+                (select t.id, t.sender_id, t.receiver_id, t.amount, t.type, t.created_at,
+                        t.sender_balance_after balance_after from transactions t
+                  where t.sender_id = ? and t.created_at <= ? and (t.created_at < ? or t.id < ?)
+                  order by t.created_at desc, t.id desc limit ?)
+                union all
+                (select t.id, t.sender_id, t.receiver_id, t.amount, t.type, t.created_at,
+                        t.receiver_balance_after balance_after from transactions t
+                  where t.receiver_id = ? and t.sender_id <> ? and t.created_at <= ? and (t.created_at < ? or t.id < ?)
+                  order by t.created_at desc, t.id desc limit ?)
+            ) h order by h.created_at desc, h.id desc limit ?""";
+    // Deposits and withdrawals have sender = receiver and get the same value on both sides
+    private static final String FILL = """
+            update transactions
+               set sender_balance_after = coalesce(sender_balance_after, ?),
+                   receiver_balance_after = coalesce(receiver_balance_after, ?)
+             where id = ?""";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BalanceBackfill(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                           @Value("${app.history.backfillBatchSize:1000}") int batchSize) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /** Backfill every account with missing values; 409 if a backfill is already running. */
+    public BalanceBackfillResponse run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ApiException(HttpStatus.CONFLICT, "BACKFILL_RUNNING", "A balance backfill is already running");
+        }
+        try {
+            long accounts = 0;
+            long rows = 0;
+            long after = 0;
+            List<Long> ids;
+            while (!(ids = jdbc.queryForList(PENDING_ACCOUNTS, Long.class, after, batchSize)).isEmpty()) {
+                for (Long id : ids) {
+                    rows += backfillAccount(id);
+                    if (++accounts % LOG_EVERY_ACCOUNTS == 0) log.info("Balance backfill: {} accounts, {} rows", accounts, rows);
+                }
+                after = ids.get(ids.size() - 1);
+            }
+            log.info("Balance backfill done: {} accounts, {} rows", accounts, rows);
+            return new BalanceBackfillResponse(accounts, rows);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long backfillAccount(Long id) {
+        Walk walk = tx.execute(s -> {
+            List<Long> locked = jdbc.queryForList("select balance from users where id = ? for update", Long.class, id);
+            if (locked.isEmpty()) return null;
+            List<Walk> newest = jdbc.query(NEWEST, (rs, i) ->
+                    new Walk(id, locked.get(0), rs.getTimestamp(1), rs.getLong(2) + 1), id, id);
+            return newest.isEmpty() ? null : newest.get(0);
+        });
+        if (walk == null) return 0;
+        long filled = 0;
+        while (!walk.done) {
+            filled += Objects.requireNonNull(tx.execute(s -> backfillPage(walk)));
+        }
+        return filled;
+    }
+
+    /** Fill one page of the walk and move it past that page; returns the number of rows written. */
+    private long backfillPage(Walk walk) {
+        long id = walk.accountId;
+        List<Object[]> fills = new ArrayList<>();
+        int[] read = {0};
+        jdbc.query(PAGE, rs -> {
+            read[0]++;
+            long rowId = rs.getLong(1);
+            boolean outgoing = rs.getLong(2) == id;
+            boolean self = outgoing && rs.getLong(3) == id;
+            long amount = rs.getLong(4);
+            String type = rs.getString(5);
+            Long stored = rs.getObject(7, Long.class);
+            if (stored == null) {
+                fills.add(new Object[]{outgoing ? walk.balance : null, outgoing && !self ? null : walk.balance, rowId});
+            } else {
+                walk.balance = stored;
+            }
+            // Undo the row to get the balance after the one before it
+            walk.balance -= switch (type) {
+                case "DEPOSIT" -> amount;
+                case "WITHDRAW" -> -amount;
+                default -> outgoing ? -amount : amount;
+            };
+            walk.beforeTs = rs.getTimestamp(6);
+            walk.beforeId = rowId;
+        }, id, walk.beforeTs, walk.beforeTs, walk.beforeId, batchSize,
+                id, id, walk.beforeTs, walk.beforeTs, walk.beforeId, batchSize, batchSize);
+        walk.done = read[0] < batchSize;
+        if (!fills.isEmpty()) jdbc.batchUpdate(FILL, fills);
+        return fills.size();
+    }
+
+    /** Position of one account's walk: the running balance and the keyset cursor of the last row undone. */
+    private static final class Walk {
+        final long accountId;
+        long balance;
+        Timestamp beforeTs;
+        long beforeId;
+        boolean done;
+
+        Walk(long accountId, long balance, Timestamp beforeTs, long beforeId) {
+            this.accountId = accountId;
+            this.balance = balance;
+            this.beforeTs = beforeTs;
+            this.beforeId = beforeId;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.datasource.ReadYourWrites;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.repo.VersionedBalance;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of account balances for the polled read paths ({@code GET /account},
+ * {@code GET /account/balance}), bounded with Caffeine's W-TinyLFU eviction. {@link AccountService}
+ * invalidates an account once each change to it has committed.
+ * <p>
+ * A load that overlaps a commit may have read the old balance, so it must not be cached: every load and
+ * invalidation takes a stamp from one clock, an invalidation racing with loads leaves a marker holding its
+ * stamp, and a load is cached only if no marker newer than its own stamp is present (or was evicted).
+ * Among concurrent loads the one that read the higher row version wins. The TTL bounds staleness from
+ * writes made outside {@link AccountService}. A load served by the replica is returned but never cached:
+ * it may predate a commit whose invalidation has already run.
+ */
+@Component
+public class BalanceCache {
+
+    private sealed interface Slot permits Cached, Invalidated {}
+    private record Cached(long balance, long version) implements Slot {}
+    private record Invalidated(long stamp) implements Slot {}
+
+    private final UserRepository users;
+    private final ReadYourWrites readYourWrites;
+    private final boolean enabled;
+    private final Cache<Long, Slot> cache;
+    private final AtomicLong clock = new AtomicLong();
+    // Stamp of the newest invalidation marker lost to eviction; loads stamped before it are not cached
+    private final AtomicLong evictedMarkers = new AtomicLong();
+    private final AtomicInteger loading = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder dbLookups = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BalanceCache(UserRepository users, ReadYourWrites readYourWrites,
+                        @Value("${app.account.balanceCache.maxSize:100000}") long maxSize,
+                        @Value("${app.account.balanceCache.ttlSeconds:60}") long ttlSeconds) {
+        this.users = users;
+        this.readYourWrites = readYourWrites;
+        this.enabled = maxSize > 0;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxSize, 1))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .evictionListener((Long id, Slot slot, RemovalCause cause) -> {
+                    if (slot instanceof Invalidated marker) {
+                        evictedMarkers.accumulateAndGet(marker.stamp(), Math::max);
+                    } else {
+                        evictions.increment();
+                    }
+                })
+                .build();
+    }
+
+    /** Balance of an account, from the cache or loaded on a miss; empty if there is no such account. */
+    public OptionalLong get(Long accountId) {
+        if (enabled && cache.getIfPresent(accountId) instanceof Cached cached) {
+            hits.increment();
+            return OptionalLong.of(cached.balance());
+        }
+        loading.incrementAndGet();
+        try {
+            long stamp = clock.incrementAndGet();
+            boolean cacheable = enabled && !readYourWrites.onReplica();
+            long start = System.nanoTime();
+            Optional<VersionedBalance> loaded = users.findVersionedBalance(accountId);
+            dbLookups.increment();
+            loadNanos.add(System.nanoTime() - start);
+            if (loaded.isEmpty()) return OptionalLong.empty();
+            VersionedBalance v = loaded.get();
+            if (cacheable) cache.asMap().compute(accountId, (id, current) -> admits(current, v, stamp) ? new Cached(v.balance(), v.version()) : current);
+            return OptionalLong.of(v.balance());
+        } finally {
+            loading.decrementAndGet();
+        }
+    }
+
+    /** Forget an account's balance; call after the change is committed. */
+    public void invalidate(Long accountId) {
+        if (!enabled) return;
+        // Loads that start after this check read the committed balance, so only racing loads need a marker
+        if (loading.get() == 0) {
+            cache.invalidate(accountId);
+        } else {
+            cache.put(accountId, new Invalidated(clock.incrementAndGet()));
+        }
+    }
+
+    public CacheStats stats() {
+        long loads = dbLookups.sum();
+        long hitCount = hits.sum();
+        return CacheStats.of(hitCount, loads, loads, 0, loadNanos.sum(), evictions.sum(), evictions.sum());
+    }
+
+    /** Number of {@code users} queries issued for balance reads. */
+    public long dbLookups() {
+        return dbLookups.sum();
+    }
+
+    private boolean admits(Slot current, VersionedBalance loaded, long stamp) {
+        if (stamp <= evictedMarkers.get()) return false;
+        return switch (current) {
+            case null -> true;
+            case Invalidated marker -> marker.stamp() < stamp;
+            case Cached cached -> cached.version() < loaded.version();
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.ppbanking.service;
+
+/** How a batch transfer treats an item that cannot be applied. */
+public enum BatchMode {
+    /** Any invalid item fails the whole request; nothing is applied. */
+    ALL_OR_NOTHING,
+    /** Invalid items are skipped and reported; the rest are applied. */
+    PER_ITEM
+}
@@ -0,0 +1,14 @@
+package com.example.ppbanking.service;
+
+/** How balance read-modify-write is protected against concurrent updates (app.account.concurrency). */
+public enum ConcurrencyMode {
+    /** Plain reads, {@code @Version} check on commit, whole transaction retried on conflict. */
+    OPTIMISTIC,
+    /** {@code SELECT ... FOR UPDATE} on every touched account, taken in ascending id order. */
+    PESSIMISTIC,
+    /**
+     * No entity load at all: conditional {@code UPDATE ... SET balance = balance +/- :amt} statements,
+     * with the affected-row count telling success from insufficient funds.
+     */
+    ATOMIC
+}
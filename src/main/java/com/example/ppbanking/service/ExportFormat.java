@@ -0,0 +1,35 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.exception.ApiException;
+import org.springframework.http.HttpStatus;
+
+import java.util.Locale;
+
+/** Formats of the transaction history export. */
+public enum ExportFormat {
+    /** Header line, then one comma-separated row per transaction. */
+    CSV("text/csv", "csv"),
+    /** One JSON object per line, shaped like the history items of {@code GET /account/transactions}. */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() { return contentType; }
+
+    public String extension() { return extension; }
+
+    /** Case-insensitive name, or 400. */
+    public static ExportFormat parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "FORMAT_INVALID", "Format must be csv or ndjson");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.exception.ApiException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in a user's history: the (createdAt, id) of the last row already returned.
+ * Encoded as URL-safe base64 so clients treat it as a token, not something to build by hand.
+ */
+public record HistoryCursor(LocalDateTime createdAt, Long id) {
+
+    /** Position before the newest possible row, i.e. the first page. */
+    public static final HistoryCursor START = new HistoryCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    public static HistoryCursor after(TransactionView t) {
+        return new HistoryCursor(t.createdAt(), t.id());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decode a client-supplied cursor; null/blank means the first page. */
+    public static HistoryCursor decode(String token) {
+        if (token == null || token.isBlank()) return START;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) throw new IllegalArgumentException("missing separator");
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "CURSOR_INVALID", "Invalid history cursor");
+        }
+    }
+}
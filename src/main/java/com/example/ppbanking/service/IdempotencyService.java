@@ -0,0 +1,146 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.domain.IdempotencyRecord;
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.repo.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * Runs a mutation at most once per (user, Idempotency-Key). Completed keys are answered from a bounded
+ * in-memory index without touching the database; misses fall back to the persistent record, which is
+ * written in the same transaction as the mutation and so survives restarts exactly when the effect does.
+ * Concurrent retries of a key that is still executing wait for it and then replay. Failed attempts store
+ * nothing, so a retry after e.g. INSUFFICIENT_FUNDS runs again.
+ * <p>
+ * Not available in engine mode (app.engine.enabled): the engine applies an effect before, and apart from,
+ * any database transaction, so the key could not commit together with it and a crash or a concurrent
+ * insert of the same key would let a retry apply the effect twice. Keyed requests are rejected there.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository records;
+    private final TransactionRetry retry;
+    private final Cache<String, IdempotencyRecord> index;
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final long inFlightWaitMillis;
+    private final Duration retention;
+    private final boolean engineMode;
+
+    public IdempotencyService(IdempotencyRecordRepository records, TransactionRetry retry,
+                              @Value("${app.idempotency.cacheSize:100000}") long cacheSize,
+                              @Value("${app.idempotency.retentionHours:24}") long retentionHours,
+                              @Value("${app.idempotency.inFlightWaitMillis:5000}") long inFlightWaitMillis,
+                              @Value("${app.engine.enabled:false}") boolean engineMode) {
+        this.records = records;
+        this.engineMode = engineMode;
+        this.retry = retry;
+        this.retention = Duration.ofHours(retentionHours);
+        this.inFlightWaitMillis = inFlightWaitMillis;
+        this.index = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    /**
+     * Run {@code action} unless this user already completed {@code key}. Returns true when the call was a
+     * replay of an earlier success and nothing was executed.
+     */
+    public boolean execute(Long userId, String key, String fingerprint, Runnable action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "IDEMPOTENCY_KEY_INVALID",
+                    HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        if (engineMode) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "IDEMPOTENCY_UNSUPPORTED",
+                    HEADER + " is not available in engine mode");
+        }
+        String id = userId + ":" + key;
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        for (;;) {
+            IdempotencyRecord done = index.getIfPresent(id);
+            if (done != null) return replay(done, fingerprint);
+            CompletableFuture<Void> running = inFlight.putIfAbsent(id, mine);
+            if (running == null) break;
+            awaitOther(running);
+        }
+
+        RuntimeException failure = null;
+        try {
+            IdempotencyRecord stored = retry.execute(() -> {
+                Optional<IdempotencyRecord> existing = records.findById(id);
+                if (existing.isPresent()) return existing.get();
+                action.run();
+                records.save(new IdempotencyRecord(id, userId, fingerprint));
+                return null;
+            });
+            if (stored != null) {
+                index.put(id, stored);
+                return replay(stored, fingerprint);
+            }
+            index.put(id, new IdempotencyRecord(id, userId, fingerprint));
+            return false;
+        } catch (DataIntegrityViolationException e) {
+            // Another instance committed the same key first; our effects were rolled back with the insert
+            // (they ran in its transaction, which is why engine mode is excluded above)
+            IdempotencyRecord winner = records.findById(id).orElseThrow(() -> e);
+            index.put(id, winner);
+            return replay(winner, fingerprint);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            // Leave the in-flight map before waking waiters, so they find the result rather than this future
+            inFlight.remove(id, mine);
+            if (failure == null) mine.complete(null);
+            else mine.completeExceptionally(failure);
+        }
+    }
+
+    /** Drop persistent keys older than the retention period; the in-memory index expires on its own. */
+    @Scheduled(fixedDelayString = "${app.idempotency.purgeIntervalMillis:3600000}")
+    public void purgeExpired() {
+        int removed = records.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (removed > 0) log.info("Purged {} expired idempotency keys", removed);
+    }
+
+    private static boolean replay(IdempotencyRecord done, String fingerprint) {
+        if (!done.getFingerprint().equals(fingerprint)) {
+            throw new ApiException(HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_REUSED",
+                    HEADER + " was already used for a different request");
+        }
+        return true;
+    }
+
+    /** Wait for the attempt holding the key; its failure is ours too, since we are the same request. */
+    private void awaitOther(CompletableFuture<Void> running) {
+        try {
+            running.get(inFlightWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ApiException(HttpStatus.CONFLICT, "IDEMPOTENCY_KEY_IN_FLIGHT",
+                    "A request with this " + HEADER + " is still being processed");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "INTERRUPTED", "Request interrupted");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.exception.ApiException;
+import org.springframework.http.HttpStatus;
+
+import java.util.Locale;
+
+/** Input formats of the admin user import. */
+public enum ImportFormat {
+    /** Header line naming the columns, then one comma-separated row per user. */
+    CSV,
+    /** One JSON object per line. */
+    NDJSON;
+
+    /** Case-insensitive name, or 400. */
+    public static ImportFormat parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "FORMAT_INVALID", "Format must be csv or ndjson");
+        }
+    }
+}
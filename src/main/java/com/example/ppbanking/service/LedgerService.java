@@ -0,0 +1,155 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.domain.BalanceSnapshot;
+import com.example.ppbanking.domain.LedgerPosting;
+import com.example.ppbanking.domain.Transaction;
+import com.example.ppbanking.dto.LedgerCheckResponse;
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.repo.BalanceSnapshotRepository;
+import com.example.ppbanking.repo.LedgerPostingRepository;
+import com.example.ppbanking.repo.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ledger mode ({@code app.ledger.enabled}): every transaction is also written as append-only double-entry
+ * postings in the same database transaction, and the ledger is the authority on balances.
+ * {@code users.balance} stays as the materialized current balance the hot paths lock and update; the
+ * consistency check verifies the two agree. Historical balances are the latest snapshot at or before the
+ * requested time plus the postings since, so their cost is bounded by the snapshot interval, not history.
+ */
+@Slf4j
+@Service
+public class LedgerService {
+    /** Counterparty for money entering (deposit) or leaving (withdrawal) the bank. */
+    public static final long EXTERNAL_ACCOUNT = 0L;
+    // Lower bound for "no snapshot yet"; inside every database's timestamp range
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final LedgerPostingRepository postings;
+    private final BalanceSnapshotRepository snapshots;
+    private final UserRepository users;
+    private final boolean enabled;
+    private final Duration snapshotLag;
+
+    public LedgerService(LedgerPostingRepository postings, BalanceSnapshotRepository snapshots, UserRepository users,
+                         @Value("${app.ledger.enabled:false}") boolean enabled,
+                         @Value("${app.ledger.snapshotLagSeconds:5}") long snapshotLagSeconds) {
+        this.postings = postings;
+        this.snapshots = snapshots;
+        this.users = users;
+        this.enabled = enabled;
+        this.snapshotLag = Duration.ofSeconds(snapshotLagSeconds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Write the postings for freshly saved transactions; call inside the transaction that saved them. */
+    public void post(List<Transaction> recorded) {
+        if (!enabled) return;
+        List<LedgerPosting> rows = new ArrayList<>(recorded.size() * 2);
+        for (Transaction t : recorded) {
+            long debitAccount = t.getType().equals("DEPOSIT") ? EXTERNAL_ACCOUNT : t.getSenderId();
+            long creditAccount = t.getType().equals("WITHDRAW") ? EXTERNAL_ACCOUNT : t.getReceiverId();
+            rows.add(new LedgerPosting(t.getId(), debitAccount, -t.getAmount(), t.getCreatedAt()));
+            rows.add(new LedgerPosting(t.getId(), creditAccount, t.getAmount(), t.getCreatedAt()));
+        }
+        postings.saveAll(rows);
+    }
+
+    /** Ledger balance of an account including all postings up to {@code at}. */
+    @Transactional(readOnly = true)
+    public long balanceAt(Long accountId, LocalDateTime at) {
+        if (!enabled) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "LEDGER_DISABLED", "Point-in-time balances need ledger mode");
+        }
+        var snapshot = snapshots.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, at);
+        long base = snapshot.map(BalanceSnapshot::getBalance).orElse(0L);
+        LocalDateTime from = snapshot.map(BalanceSnapshot::getAsOf).orElse(BEGINNING);
+        return base + postings.sumBetween(accountId, from, at);
+    }
+
+    /**
+     * Snapshot every account with postings since the previous run, as of now minus the configured lag (so
+     * transactions still committing with an earlier timestamp are not skipped). Returns snapshots written.
+     * Assumes a single scheduler instance.
+     */
+    @Scheduled(fixedDelayString = "${app.ledger.snapshotIntervalMillis:300000}",
+            initialDelayString = "${app.ledger.snapshotIntervalMillis:300000}")
+    @Transactional
+    public int snapshot() {
+        if (!enabled) return 0;
+        LocalDateTime previous = snapshots.findLatestAsOf();
+        if (previous == null) previous = BEGINNING;
+        LocalDateTime cutoff = LocalDateTime.now().minus(snapshotLag).truncatedTo(ChronoUnit.MICROS);
+        if (!cutoff.isAfter(previous)) return 0;
+
+        List<BalanceSnapshot> taken = new ArrayList<>();
+        for (Object[] row : postings.sumByAccountBetween(previous, cutoff)) {
+            Long account = (Long) row[0];
+            long delta = ((Number) row[1]).longValue();
+            long base = snapshots.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(account, previous)
+                    .map(BalanceSnapshot::getBalance).orElse(0L);
+            taken.add(new BalanceSnapshot(account, base + delta, cutoff));
+        }
+        snapshots.saveAll(taken);
+        if (!taken.isEmpty()) log.info("Took {} balance snapshots as of {}", taken.size(), cutoff);
+        return taken.size();
+    }
+
+    /**
+     * Compare every account's ledger balance with {@code users.balance} and check that postings net to zero.
+     * The comparison is a single grouped query over the postings rather than one lookup per account, so it
+     * reads every posting once instead of going through snapshots. Accounts written while the check runs may
+     * show transient mismatches; re-run to confirm.
+     */
+    @Transactional(readOnly = true)
+    public LedgerCheckResponse check() {
+        if (!enabled) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "LEDGER_DISABLED", "Ledger mode is not enabled");
+        }
+        List<LedgerCheckResponse.Mismatch> mismatches = new ArrayList<>();
+        for (Object[] row : postings.findBalanceMismatches()) {
+            mismatches.add(new LedgerCheckResponse.Mismatch((Long) row[0], (Long) row[1], ((Number) row[2]).longValue()));
+        }
+        return new LedgerCheckResponse((int) users.count(), postings.total(), mismatches);
+    }
+
+    /**
+     * Accounts that predate ledger mode get one opening posting for their current balance (against the
+     * external account), so the ledger agrees with {@code users.balance} from the moment it is switched on.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void openAccounts() {
+        if (!enabled) return;
+        Set<Long> posted = new HashSet<>(postings.findAccountIds());
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<LedgerPosting> opening = new ArrayList<>();
+        for (Object[] row : users.findAllBalances()) {
+            Long id = (Long) row[0];
+            long balance = (Long) row[1];
+            if (balance == 0 || posted.contains(id)) continue;
+            opening.add(new LedgerPosting(null, id, balance, now));
+            opening.add(new LedgerPosting(null, EXTERNAL_ACCOUNT, -balance, now));
+        }
+        postings.saveAll(opening);
+        if (!opening.isEmpty()) log.info("Opened {} existing accounts in the ledger", opening.size() / 2);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.archive.ArchiveSegment;
+import com.example.ppbanking.archive.TransactionArchive;
+import com.example.ppbanking.datasource.ReadYourWrites;
+import com.example.ppbanking.dto.ArchiveResponse;
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.repo.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves whole calendar months out of the transactions table into the {@link TransactionArchive} once they
+ * are older than app.archive.hotMonths, oldest first, so the table only holds recent history. A month is
+ * read account by account through the history indexes, written to a segment, checked against the table and
+ * published; from then on reads take it from the archive. Its rows are deleted from the table by the
+ * following run, so a read that started before the publish never finds them missing. A month with rows
+ * still awaiting {@link BalanceBackfill} stays hot, and so do the months after it. Runs on a schedule when
+ * app.archive.enabled, or on demand; one run at a time, assuming a single instance.
+ */
+@Slf4j
+@Service
+public class TransactionArchiver {
+    private static final String OLDEST = "select min(created_at) from transactions where created_at >= ?";
+    private static final String MONTH_COUNTS = """
+            select count(*),
+                   count(case when sender_balance_after is null or receiver_balance_after is null then 1 end)
+              from transactions where created_at >= ? and created_at < ?""";
+    private static final String MONTH_ACCOUNTS = """
+            select a.id from (
+                select sender_id id from transactions where created_at >= ? and created_at < ?
+                union
+                select receiver_id id from transactions where created_at >= ? and created_at < ?
+            ) a order by a.id""";
+    private static final String PURGE = """
+            delete from transactions where id in (
+                select id from transactions where created_at < ? order by created_at limit ?)""";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionRepository txs;
+    private final TransactionArchive archive;
+    private final TransactionTemplate readOnly;
+    private final ReadYourWrites readYourWrites;
+    private final boolean enabled;
+    private final int hotMonths;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public TransactionArchiver(JdbcTemplate jdbc, TransactionRepository txs, TransactionArchive archive,
+                               PlatformTransactionManager transactionManager, ReadYourWrites readYourWrites,
+                               @Value("${app.archive.enabled:false}") boolean enabled,
+                               @Value("${app.archive.hotMonths:3}") int hotMonths,
+                               @Value("${app.archive.batchSize:10000}") int batchSize) {
+        this.jdbc = jdbc;
+        this.txs = txs;
+        this.archive = archive;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readYourWrites = readYourWrites;
+        this.enabled = enabled;
+        this.hotMonths = Math.max(1, hotMonths);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.archive.intervalMillis:3600000}",
+            initialDelayString = "${app.archive.intervalMillis:3600000}")
+    public void scheduledRun() {
+        if (enabled && !running.get()) run();
+    }
+
+    /** Purge what earlier runs archived, then archive every complete month past the hot window; 409 if running. */
+    public ArchiveResponse run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ApiException(HttpStatus.CONFLICT, "ARCHIVE_RUNNING", "Archiving is already running");
+        }
+        try {
+            long purged = purge(archive.snapshot().horizon());
+            YearMonth firstHot = YearMonth.now().minusMonths(hotMonths - 1);
+            int months = 0;
+            long rows = 0;
+            LocalDateTime oldest;
+            while ((oldest = jdbc.queryForObject(OLDEST, LocalDateTime.class, Timestamp.valueOf(archive.snapshot().horizon()))) != null) {
+                YearMonth month = YearMonth.from(oldest);
+                if (!month.isBefore(firstHot)) break;
+                long archived = archiveMonth(month);
+                if (archived < 0) break;
+                months++;
+                rows += archived;
+            }
+            if (months > 0 || purged > 0) {
+                log.info("Archived {} months ({} transactions), purged {} rows archived earlier", months, rows, purged);
+            }
+            return new ArchiveResponse(months, rows, purged);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Returns the month's transaction count, or -1 when it has to stay hot for now
+    private long archiveMonth(YearMonth month) throws IOException {
+        Timestamp start = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp end = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        long[] counts = jdbc.queryForObject(MONTH_COUNTS, (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)}, start, end);
+        long total = counts[0];
+        long awaitingBackfill = counts[1];
+        if (awaitingBackfill > 0) {
+            log.warn("{} transactions in {} await the balance backfill; keeping it and later months hot",
+                    awaitingBackfill, month);
+            return -1;
+        }
+        List<Long> accounts = jdbc.queryForList(MONTH_ACCOUNTS, Long.class, start, end, start, end);
+        try (ArchiveSegment.Writer writer = archive.writer(month)) {
+            for (int i = 0; i < accounts.size(); i += batchSize) {
+                List<Long> chunk = accounts.subList(i, Math.min(accounts.size(), i + batchSize));
+                readOnly.executeWithoutResult(s -> {
+                    // The counts and the purge run on the primary; rows read from a lagging replica could
+                    // miss the backfill they checked, and the segment would keep that copy for good
+                    readYourWrites.requirePrimary();
+                    chunk.forEach(id -> txs.forEachForUser(id, start.toLocalDateTime(), end.toLocalDateTime(), t -> {
+                        try {
+                            writer.append(id, t);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+                });
+            }
+            if (writer.transactions() != total) {
+                throw new ApiException(HttpStatus.CONFLICT, "ARCHIVE_MISMATCH",
+                        "Transactions of " + month + " changed while being archived; nothing was removed");
+            }
+            archive.publish(month, writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return total;
+    }
+
+    private long purge(LocalDateTime horizon) {
+        long purged = 0;
+        int n;
+        // Autocommit per chunk, so the table is never locked for a whole month
+        while ((n = jdbc.update(PURGE, Timestamp.valueOf(horizon), batchSize)) > 0) purged += n;
+        return purged;
+    }
+}
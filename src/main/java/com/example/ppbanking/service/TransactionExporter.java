@@ -0,0 +1,98 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.archive.ArchiveSnapshot;
+import com.example.ppbanking.archive.TransactionArchive;
+import com.example.ppbanking.datasource.ReadYourWrites;
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.repo.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Writes a user's transaction history straight from a database cursor to an output stream, oldest first.
+ * Only the current row and an output buffer are held, so a multi-year export costs the same memory as a
+ * single page. The part of the range before the archive horizon is read from the archived months it covers
+ * (one decoded block at a time), the rest from the transactions table.
+ */
+@Service
+public class TransactionExporter {
+    static final String CSV_HEADER = "id,createdAt,type,senderId,receiverId,amount,balanceAfter\n";
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private final TransactionRepository txs;
+    private final TransactionArchive archive;
+    private final ReadYourWrites readYourWrites;
+    private final ObjectWriter json;
+
+    public TransactionExporter(TransactionRepository txs, TransactionArchive archive, ReadYourWrites readYourWrites,
+                               ObjectMapper mapper) {
+        this.txs = txs;
+        this.archive = archive;
+        this.readYourWrites = readYourWrites;
+        this.json = mapper.writerFor(TransactionView.class);
+    }
+
+    /** Export {@code from <= createdAt < to}; the caller owns (and closes) the stream. */
+    @Transactional(readOnly = true)
+    public void export(Long userId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out)
+            throws IOException {
+        readYourWrites.readingFor(userId);
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_CHARS);
+        if (format == ExportFormat.CSV) w.write(CSV_HEADER);
+        Consumer<TransactionView> write = t -> {
+            try {
+                if (format == ExportFormat.CSV) writeCsv(w, t);
+                else writeNdjson(w, t);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        ArchiveSnapshot archived = archive.snapshot();
+        LocalDateTime horizon = archived.horizon();
+        try {
+            if (from.isBefore(horizon)) archived.forEach(userId, from, to.isBefore(horizon) ? to : horizon, write);
+            if (to.isAfter(horizon)) txs.forEachForUser(userId, from.isAfter(horizon) ? from : horizon, to, write);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+        w.flush();
+    }
+
+    private static void writeCsv(Writer w, TransactionView t) throws IOException {
+        w.write(Long.toString(t.id()));
+        w.write(',');
+        w.write(t.createdAt().toString());
+        w.write(',');
+        w.write(t.type());
+        w.write(',');
+        w.write(Long.toString(t.senderId()));
+        w.write(',');
+        w.write(Long.toString(t.receiverId()));
+        w.write(',');
+        // Same decimal form as @JsonMoney: 1234 cents is 12.34
+        w.write(BigDecimal.valueOf(t.amount(), 2).toPlainString());
+        w.write(',');
+        // Empty for rows not yet backfilled
+        if (t.balanceAfter() != null) w.write(BigDecimal.valueOf(t.balanceAfter(), 2).toPlainString());
+        w.write('\n');
+    }
+
+    private void writeNdjson(Writer w, TransactionView t) throws IOException {
+        w.write(json.writeValueAsString(t));
+        w.write('\n');
+    }
+}
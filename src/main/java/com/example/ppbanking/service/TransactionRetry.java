@@ -0,0 +1,67 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and re-runs it when the commit loses an optimistic
+ * version check. Retrying only makes sense at the outermost boundary: inside a caller's transaction
+ * the work just joins it, and a conflict surfaces to whoever owns that transaction.
+ */
+@Component
+public class TransactionRetry {
+    private final TransactionTemplate tx;
+    private final int maxAttempts;
+    // Contention: every lost version check, whether or not a later attempt succeeds
+    private final Counter conflicts;
+
+    public TransactionRetry(TransactionTemplate tx, @Value("${app.account.maxAttempts:5}") int maxAttempts,
+                            MeterRegistry registry) {
+        this.tx = tx;
+        this.maxAttempts = maxAttempts;
+        this.conflicts = Counter.builder("bank.account.conflicts")
+                .description("Optimistic version conflicts in account transactions")
+                .register(registry);
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    throw new ApiException(HttpStatus.CONFLICT, "CONCURRENT_UPDATE", "Account is busy, please retry");
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(Runnable work) {
+        execute(() -> { work.run(); return null; });
+    }
+
+    /** Randomized exponential backoff so colliding writers do not retry in lockstep. */
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1L << Math.min(attempt, 6)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "INTERRUPTED", "Request interrupted");
+        }
+    }
+}
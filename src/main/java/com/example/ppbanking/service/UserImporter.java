@@ -0,0 +1,339 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.dto.RegisterRequest;
+import com.example.ppbanking.dto.UserImportResponse;
+import com.example.ppbanking.dto.UserImportResponse.RowError;
+import com.example.ppbanking.engine.TransferEngine;
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.repo.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user creation for {@code POST /admin/users/import}. The body is read line by line and handled in
+ * chunks: each chunk is validated, checked against existing usernames with one query, has its passwords
+ * hashed in parallel on a dedicated pool, and is inserted as JDBC batches in its own transaction. Memory is
+ * bounded by the chunk size, not the input. Rows carry either a plain {@code password} or an existing
+ * BCrypt {@code passwordHash} (a migrated account); only the former pay for hashing.
+ * One import runs at a time.
+ */
+@Slf4j
+@Service
+public class UserImporter {
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final long LOG_EVERY_ROWS = 100_000;
+
+    private final UserRepository users;
+    private final PasswordEncoder encoder;
+    private final Validator validator;
+    private final ObjectMapper json;
+    private final TransactionTemplate tx;
+    private final ThreadPoolExecutor hashers;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    // Only with app.engine.enabled, which must learn about every new account
+    @Autowired(required = false) private TransferEngine engine;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Run current;
+
+    public UserImporter(UserRepository users, PasswordEncoder encoder, Validator validator, ObjectMapper json,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.admin.import.chunkSize:1000}") int chunkSize,
+                        @Value("${app.admin.import.hashThreads:0}") int hashThreads,
+                        @Value("${app.admin.import.maxReportedErrors:1000}") int maxReportedErrors) {
+        this.users = users;
+        this.encoder = encoder;
+        this.validator = validator;
+        this.json = json;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        // Separate from PasswordHasher's pool, whose small queue is sized for logins. A chunk is hashed before
+        // the next is read, so at most chunkSize hashes are ever queued (0 threads = one per core)
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.hashers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(chunkSize),
+                r -> {
+                    Thread t = new Thread(r, "import-hasher-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /** Import every row of {@code in}; returns the final report. 409 if another import is running. */
+    public UserImportResponse importUsers(InputStream in, ImportFormat format) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new ApiException(HttpStatus.CONFLICT, "IMPORT_RUNNING", "Another user import is running");
+        }
+        Run run = new Run();
+        current = run;
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+            Map<String, Integer> columns = format == ImportFormat.CSV ? readHeader(reader) : null;
+            long line = columns == null ? 0 : 1;
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) continue;
+                run.processed++;
+                Row row = columns != null ? parseCsv(line, text, columns, run) : parseJson(line, text, run);
+                if (row != null) chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, run);
+                    chunk.clear();
+                }
+                if (run.processed % LOG_EVERY_ROWS == 0) {
+                    log.info("User import: {} rows processed, {} imported, {} rejected", run.processed, run.imported, run.rejected);
+                }
+            }
+            if (!chunk.isEmpty()) importChunk(chunk, run);
+            run.finished = true;
+            log.info("User import finished: {} rows processed, {} imported, {} rejected", run.processed, run.imported, run.rejected);
+            return run.snapshot();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Progress of the running import, or the report of the last one; 404 if there has been none. */
+    public UserImportResponse status() {
+        Run run = current;
+        if (run == null) throw new ApiException(HttpStatus.NOT_FOUND, "IMPORT_NOT_FOUND", "No user import has run");
+        return run.snapshot();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashers.shutdown();
+    }
+
+    private void importChunk(List<Row> chunk, Run run) {
+        // Validate, and keep the first row per username
+        Map<String, Row> valid = new LinkedHashMap<>();
+        for (Row row : chunk) {
+            Rejection problem = validate(row);
+            if (problem != null) {
+                run.reject(row, problem.code, problem.message);
+            } else if (valid.putIfAbsent(row.username, row) != null) {
+                run.reject(row, "USERNAME_TAKEN", "Username appears earlier in the import");
+            }
+        }
+        rejectTaken(valid, run);
+        if (valid.isEmpty()) return;
+
+        List<CompletableFuture<String>> hashes = new ArrayList<>(valid.size());
+        for (Row row : valid.values()) {
+            hashes.add(row.passwordHash != null ? CompletableFuture.completedFuture(row.passwordHash)
+                    : CompletableFuture.supplyAsync(() -> encoder.encode(row.password), hashers));
+        }
+        List<User> batch = new ArrayList<>(valid.size());
+        int i = 0;
+        for (Row row : valid.values()) {
+            User u = new User();
+            u.setUsername(row.username);
+            u.setPasswordHash(hashes.get(i++).join());
+            u.setBalance(0);
+            u.setRole(AccountService.normalizeRole(row.role));
+            batch.add(u);
+        }
+
+        while (!batch.isEmpty()) {
+            try {
+                tx.executeWithoutResult(s -> users.insertAll(batch));
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // Usernames were registered concurrently since the check: reject them and insert the rest, as
+                // often as that keeps happening. A violation that no taken username explains is not a race
+                int before = valid.size();
+                rejectTaken(valid, run);
+                if (valid.size() == before) throw e;
+                batch.removeIf(u -> !valid.containsKey(u.getUsername()));
+                batch.forEach(u -> u.setId(null));
+            }
+        }
+        if (engine != null) batch.forEach(u -> engine.open(u.getId()));
+        run.imported += batch.size();
+    }
+
+    private void rejectTaken(Map<String, Row> valid, Run run) {
+        if (valid.isEmpty()) return;
+        for (String taken : users.findExistingUsernames(valid.keySet())) {
+            Row row = valid.remove(taken);
+            if (row != null) run.reject(row, "USERNAME_TAKEN", "Username is already taken");
+        }
+    }
+
+    // Same rules as self-registration; null when the row is acceptable
+    private Rejection validate(Row row) {
+        Set<ConstraintViolation<RegisterRequest>> violations;
+        if (row.password != null && row.passwordHash != null) {
+            return new Rejection("INVALID", "Give either password or passwordHash, not both");
+        } else if (row.passwordHash != null) {
+            violations = validator.validateProperty(new RegisterRequest(row.username, null), "username");
+            if (violations.isEmpty() && !BCRYPT_HASH.matcher(row.passwordHash).matches()) {
+                return new Rejection("INVALID", "passwordHash: must be a BCrypt hash");
+            }
+        } else {
+            violations = validator.validate(new RegisterRequest(row.username, row.password));
+        }
+        if (!violations.isEmpty()) {
+            return new Rejection("INVALID", violations.stream().map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted().collect(Collectors.joining("; ")));
+        }
+        try {
+            AccountService.normalizeRole(row.role);
+        } catch (ApiException e) {
+            return new Rejection(e.getCode(), e.getMessage());
+        }
+        return null;
+    }
+
+    private static Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        if (header != null) {
+            List<String> names = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            for (int i = 0; i < names.size(); i++) columns.putIfAbsent(names.get(i).trim(), i);
+        }
+        if (!columns.containsKey("username") || !(columns.containsKey("password") || columns.containsKey("passwordHash"))) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "HEADER_INVALID",
+                    "CSV header must name a username column and a password or passwordHash column");
+        }
+        return columns;
+    }
+
+    private static Row parseCsv(long line, String text, Map<String, Integer> columns, Run run) {
+        List<String> fields;
+        try {
+            fields = splitCsv(text);
+        } catch (IllegalArgumentException e) {
+            run.reject(line, null, "MALFORMED", e.getMessage());
+            return null;
+        }
+        return new Row(line, field(fields, columns, "username"), field(fields, columns, "password"),
+                field(fields, columns, "passwordHash"), field(fields, columns, "role"));
+    }
+
+    private Row parseJson(long line, String text, Run run) {
+        JsonNode node;
+        try {
+            node = json.readTree(text);
+        } catch (IOException e) {
+            node = null;
+        }
+        if (node == null || !node.isObject()) {
+            run.reject(line, null, "MALFORMED", "Not a JSON object");
+            return null;
+        }
+        return new Row(line, text(node, "username"), text(node, "password"), text(node, "passwordHash"), text(node, "role"));
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer i = columns.get(name);
+        if (i == null || i >= fields.size() || fields.get(i).isEmpty()) return null;
+        return fields.get(i);
+    }
+
+    private static String text(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /** Split one CSV line; fields may be double-quoted, with {@code ""} for a literal quote. */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quoted field");
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record Row(long line, String username, String password, String passwordHash, String role) {}
+
+    private record Rejection(String code, String message) {}
+
+    // Written by the importing thread only; status() reads a possibly slightly stale view
+    private final class Run {
+        volatile long processed;
+        volatile long imported;
+        volatile long rejected;
+        volatile boolean finished;
+        final List<RowError> errors = new ArrayList<>();
+
+        void reject(Row row, String code, String message) {
+            reject(row.line, row.username, code, message);
+        }
+
+        void reject(long line, String username, String code, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                synchronized (errors) {
+                    errors.add(new RowError(line, username, code, message));
+                }
+            }
+        }
+
+        UserImportResponse snapshot() {
+            synchronized (errors) {
+                return new UserImportResponse(finished, processed, imported, rejected, List.copyOf(errors));
+            }
+        }
+    }
+}
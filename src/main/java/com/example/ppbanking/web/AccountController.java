@@ -1,24 +1,60 @@
 package com.example.ppbanking.web;
 
 import com.example.ppbanking.dto.*;
+import com.example.ppbanking.security.AppPrincipal;
 import com.example.ppbanking.service.AccountService;
-import lombok.RequiredArgsConstructor;
+import com.example.ppbanking.service.ExportFormat;
+import com.example.ppbanking.service.IdempotencyService;
+import com.example.ppbanking.service.TransactionExporter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/account")
-@RequiredArgsConstructor
 public class AccountController {
     private final AccountService service;
+    private final IdempotencyService idempotency;
+    private final TransactionExporter exporter;
+    private final long exportTimeoutMillis;
+
+    public AccountController(AccountService service, IdempotencyService idempotency, TransactionExporter exporter,
+                             @Value("${app.history.exportTimeoutMinutes:30}") long exportTimeoutMinutes) {
+        this.service = service;
+        this.idempotency = idempotency;
+        this.exporter = exporter;
+        this.exportTimeoutMillis = TimeUnit.MINUTES.toMillis(exportTimeoutMinutes);
+    }
+
+    // Open bounds of the export range; within every supported database's timestamp range
+    private static final LocalDateTime EXPORT_BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime EXPORT_END = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     private Long currentUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        return service.getByUsername(username).getId();
+        // JwtAuthFilter already resolved the id; other authentication paths fall back to a lookup.
+        if (auth.getPrincipal() instanceof AppPrincipal principal) {
+            return principal.id();
+        }
+        return service.getByUsername(auth.getName()).getId();
     }
 
     @GetMapping
@@ -26,18 +62,88 @@ public class AccountController {
         return service.getAccount(currentUserId());
     }
 
+    /** Current balance, or with {@code at} (ISO local date-time) the balance at that moment. */
+    @GetMapping("/balance")
+    public BalanceResponse balance(@RequestParam(required = false)
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        if (at != null) return new BalanceResponse(service.getBalanceAt(currentUserId(), at));
+        return new BalanceResponse(service.getBalance(currentUserId()));
+    }
+
+    @GetMapping("/transactions")
+    public TransactionPage transactions(@RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size) {
+        return service.getHistory(currentUserId(), cursor, size);
+    }
+
+    /**
+     * The whole history (or {@code from <= createdAt < to}, ISO local date-times) as a CSV or NDJSON
+     * download, oldest first, streamed from a database cursor. The body is written on an async thread under
+     * app.history.exportTimeoutMinutes instead of the (much shorter) default async request timeout.
+     */
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletRequest request) {
+        ExportFormat f = ExportFormat.parse(format);
+        Long userId = currentUserId();
+        LocalDateTime start = from != null ? from : EXPORT_BEGINNING;
+        LocalDateTime end = to != null ? to : EXPORT_END;
+        StreamingResponseBody body = out -> exporter.export(userId, start, end, f, out);
+        // The streaming body's async processing starts after this returns; set its timeout just before it does
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor("exportTimeout", new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest req, Callable<T> task) {
+                if (req instanceof AsyncWebRequest async) async.setTimeout(exportTimeoutMillis);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(f.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("transactions." + f.extension()).build().toString())
+                .body(body);
+    }
+
+    // Mutations accept an optional Idempotency-Key: a retried request with the same key and body is
+    // answered from the stored outcome (marked Idempotent-Replayed) without touching balances.
+
     @PostMapping("/deposit")
-    public void deposit(@RequestBody @Valid AmountRequest req) {
-        service.deposit(currentUserId(), req.amount());
+    public ResponseEntity<Void> deposit(@RequestBody @Valid AmountRequest req,
+                                        @RequestHeader(name = IdempotencyService.HEADER, required = false) String key) {
+        Long userId = currentUserId();
+        return idempotent(userId, key, "deposit:" + req.amount(), () -> service.deposit(userId, req.amount()));
     }
 
     @PostMapping("/withdraw")
-    public void withdraw(@RequestBody @Valid AmountRequest req) {
-        service.withdraw(currentUserId(), req.amount());
+    public ResponseEntity<Void> withdraw(@RequestBody @Valid AmountRequest req,
+                                         @RequestHeader(name = IdempotencyService.HEADER, required = false) String key) {
+        Long userId = currentUserId();
+        return idempotent(userId, key, "withdraw:" + req.amount(), () -> service.withdraw(userId, req.amount()));
     }
 
     @PostMapping("/transfer")
-    public void transfer(@RequestBody @Valid TransferRequest req) {
-        service.transfer(currentUserId(), req.toUserId(), req.amount());
+    public ResponseEntity<Void> transfer(@RequestBody @Valid TransferRequest req,
+                                         @RequestHeader(name = IdempotencyService.HEADER, required = false) String key) {
+        Long userId = currentUserId();
+        return idempotent(userId, key, "transfer:" + req.toUserId() + ":" + req.amount(),
+                () -> service.transfer(userId, req.toUserId(), req.amount()));
+    }
+
+    @PostMapping("/transfers/batch")
+    public BatchTransferResponse transferBatch(@RequestBody @Valid BatchTransferRequest req) {
+        return service.transferBatch(currentUserId(), req.transfers(), req.mode());
+    }
+
+    private ResponseEntity<Void> idempotent(Long userId, String key, String fingerprint, Runnable action) {
+        if (key == null) {
+            action.run();
+            return ResponseEntity.ok().build();
+        }
+        boolean replayed = idempotency.execute(userId, key, fingerprint, action);
+        return replayed
+                ? ResponseEntity.ok().header("Idempotent-Replayed", "true").build()
+                : ResponseEntity.ok().build();
     }
 }
@@ -0,0 +1,94 @@
+package com.example.ppbanking.web;
+
+import com.example.ppbanking.dto.ArchiveResponse;
+import com.example.ppbanking.dto.BalanceBackfillResponse;
+import com.example.ppbanking.dto.CacheStatsResponse;
+import com.example.ppbanking.dto.LedgerCheckResponse;
+import com.example.ppbanking.dto.PrincipalCacheStatsResponse;
+import com.example.ppbanking.dto.UserImportResponse;
+import com.example.ppbanking.security.JwtService;
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.BalanceBackfill;
+import com.example.ppbanking.service.BalanceCache;
+import com.example.ppbanking.service.LedgerService;
+import com.example.ppbanking.service.TransactionArchiver;
+import com.example.ppbanking.service.ImportFormat;
+import com.example.ppbanking.service.UserImporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+// Everything under /admin requires ROLE_ADMIN (see SecurityConfig)
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final PrincipalCache principals;
+    private final JwtService jwt;
+    private final LedgerService ledger;
+    private final BalanceCache balances;
+    private final UserImporter importer;
+    private final BalanceBackfill backfill;
+    private final TransactionArchiver archiver;
+
+    @GetMapping("/stats/principal-cache")
+    public PrincipalCacheStatsResponse principalCacheStats() {
+        var stats = principals.stats();
+        long requests = stats.requestCount();
+        double perRequest = requests == 0 ? 0.0 : (double) principals.dbLookups() / requests;
+        return new PrincipalCacheStatsResponse(CacheStatsResponse.of(stats), principals.dbLookups(), perRequest);
+    }
+
+    @GetMapping("/stats/token-cache")
+    public CacheStatsResponse tokenCacheStats() {
+        return CacheStatsResponse.of(jwt.verifiedCacheStats());
+    }
+
+    @GetMapping("/stats/balance-cache")
+    public CacheStatsResponse balanceCacheStats() {
+        return CacheStatsResponse.of(balances.stats());
+    }
+
+    /**
+     * Bulk-create users from the request body: CSV whose header names username, password or passwordHash,
+     * and optionally role; or NDJSON objects with the same fields. Answers when the whole body is done.
+     */
+    @PostMapping("/users/import")
+    public UserImportResponse importUsers(@RequestParam(defaultValue = "csv") String format, InputStream body)
+            throws IOException {
+        return importer.importUsers(body, ImportFormat.parse(format));
+    }
+
+    /** Progress of the running user import, or the report of the last one. */
+    @GetMapping("/users/import")
+    public UserImportResponse importStatus() {
+        return importer.status();
+    }
+
+    /** Fill in balances-after on transactions that predate those columns; answers when every account is done. */
+    @PostMapping("/transactions/backfill-balances")
+    public BalanceBackfillResponse backfillBalances() {
+        return backfill.run();
+    }
+
+    /** Archive the months past the hot window now instead of waiting for the scheduled run. */
+    @PostMapping("/transactions/archive")
+    public ArchiveResponse archiveTransactions() {
+        return archiver.run();
+    }
+
+    @GetMapping("/ledger/check")
+    public LedgerCheckResponse ledgerCheck() {
+        return ledger.check();
+    }
+
+    /** Take balance snapshots now instead of waiting for the scheduled run. */
+    @PostMapping("/ledger/snapshots")
+    public Map<String, Integer> ledgerSnapshot() {
+        return Map.of("snapshots", ledger.snapshot());
+    }
+}
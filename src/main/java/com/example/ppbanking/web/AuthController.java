@@ -1,19 +1,28 @@
 package com.example.ppbanking.web;
 
 import com.example.ppbanking.dto.*;
+import com.example.ppbanking.monitoring.OutcomeTimers;
+import com.example.ppbanking.security.AppPrincipal;
 import com.example.ppbanking.security.AppUserDetailsService;
 import com.example.ppbanking.security.JwtService;
+import com.example.ppbanking.security.PasswordHasher;
+import com.example.ppbanking.security.PrincipalCache;
 import com.example.ppbanking.service.AccountService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.*;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+// login/register return futures: BCrypt runs on PasswordHasher's pool and the Tomcat thread is released meanwhile.
+// Everything after the hash (database, JWT signing) continues on the application task executor, so slow
+// database work never holds a hashing thread.
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -22,45 +31,59 @@ public class AuthController {
     private final AccountService account;
     private final JwtService jwt;
     private final AppUserDetailsService uds;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher hasher;
+    private final PrincipalCache principals;
+    private final OutcomeTimers authOperations;
+    private final AsyncTaskExecutor applicationTaskExecutor; // injected by name
+
+    private static final String BAD_CREDENTIALS = "BAD_CREDENTIALS";
 
     // Публичная регистрация — всегда USER
     @PostMapping("/register")
-    public ResponseEntity<Void> register(@RequestBody @Valid RegisterRequest req) {
-        account.register(req.username(), req.password(), "USER");
-        return ResponseEntity.ok().build();
+    public CompletableFuture<ResponseEntity<Void>> register(@RequestBody @Valid RegisterRequest req) {
+        return registerAsync(req.username(), req.password(), "USER");
     }
 
     // Админская регистрация:
     //  - если пользователей ещё нет → bootstrap: можно без токена создать первого ADMIN/USER
     //  - иначе — нужен токен c ролью ADMIN
     @PostMapping("/register-admin")
-    public ResponseEntity<Void> registerAdmin(@RequestBody @Valid AdminRegisterRequest req) {
+    public CompletableFuture<ResponseEntity<Void>> registerAdmin(@RequestBody @Valid AdminRegisterRequest req) {
         boolean hasUsers = account.hasAnyUsers();
         String desiredRole = (req.role() == null || req.role().isBlank()) ? "ADMIN" : req.role();
 
         if (!hasUsers) {
-            account.register(req.username(), req.password(), desiredRole);
-            return ResponseEntity.ok().build();
+            return registerAsync(req.username(), req.password(), desiredRole);
         }
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         boolean isAdmin = auth != null && auth.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-        if (!isAdmin) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        if (!isAdmin) return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
 
-        account.register(req.username(), req.password(), desiredRole);
-        return ResponseEntity.ok().build();
+        return registerAsync(req.username(), req.password(), desiredRole);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody @Valid LoginRequest req) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody @Valid LoginRequest req) {
+        long start = authOperations.start();
+        try {
+            return authenticate(req).whenComplete((res, e) -> authOperations.stop("login", start, loginOutcome(res, e)));
+        } catch (RuntimeException e) {
+            authOperations.stop("login", start, loginOutcome(null, e));
+            throw e;
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<AuthResponse>> authenticate(LoginRequest req) {
         var ud = uds.loadUserByUsername(req.username());
-        if (!encoder.matches(req.password(), ud.getPassword()))
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        String access = jwt.generateAccess(req.username());
-        String refresh = jwt.generateRefresh(req.username());
-        return ResponseEntity.ok(new AuthResponse(access, refresh));
+        return hasher.matches(req.password(), ud.getPassword()).thenApplyAsync(ok -> {
+            if (!ok) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).<AuthResponse>build();
+            AppPrincipal principal = principals.get(req.username());
+            String access = jwt.generateAccess(principal);
+            String refresh = jwt.generateRefresh(req.username());
+            return ResponseEntity.ok(new AuthResponse(access, refresh));
+        }, applicationTaskExecutor);
     }
 
     @PostMapping("/refresh")
@@ -68,7 +91,26 @@ public class AuthController {
         String refresh = body.get("refreshToken");
         if (refresh == null) return ResponseEntity.badRequest().build();
         String username = jwt.extractUsername(refresh);
-        String newAccess = jwt.generateAccess(username);
+        // Resolve id/role again so a refreshed access token reflects the current role
+        AppPrincipal principal = principals.get(username);
+        if (principal == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        String newAccess = jwt.generateAccess(principal);
         return ResponseEntity.ok(new AuthResponse(newAccess, refresh));
     }
+
+    private static String loginOutcome(ResponseEntity<?> res, Throwable failure) {
+        if (failure instanceof AuthenticationException) return BAD_CREDENTIALS; // unknown username
+        if (failure != null) return OutcomeTimers.outcomeOf(failure);
+        return res.getStatusCode().is2xxSuccessful() ? OutcomeTimers.OK : BAD_CREDENTIALS;
+    }
+
+    // Reject a taken username before spending a hash on it; hash off-thread, then insert in a short
+    // transaction of its own (which checks again, for a concurrent registration of the same name)
+    private CompletableFuture<ResponseEntity<Void>> registerAsync(String username, String password, String role) {
+        account.requireUsernameAvailable(username);
+        return hasher.encode(password).thenApplyAsync(hash -> {
+            account.registerHashed(username, hash, role);
+            return ResponseEntity.ok().<Void>build();
+        }, applicationTaskExecutor);
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.ppbanking;
+
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Users for tests that commit into the shared test database. Names come from one counter per JVM, so
+ * they never repeat however the test classes share application contexts and databases.
+ */
+public final class TestUsers {
+    private static final AtomicLong SEQ = new AtomicLong();
+
+    private TestUsers() {}
+
+    public static String uniqueName(String prefix) {
+        return prefix + "_" + SEQ.incrementAndGet();
+    }
+
+    /** Register a USER named after {@code prefix} and return its id. */
+    public static Long register(AccountService service, UserRepository users, String prefix) {
+        String name = uniqueName(prefix);
+        service.register(name, "pass12345", "USER");
+        return users.findByUsername(name).map(User::getId).orElseThrow();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.ppbanking.archive;
+
+import com.example.ppbanking.dto.TransactionView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArchiveSegmentTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+    private static final LocalDateTime START = MONTH.atDay(1).atStartOfDay();
+    // More than two blocks, so lookups cross block boundaries
+    private static final int ROWS = ArchiveSegment.BLOCK_ROWS * 2 + 100;
+
+    @TempDir Path dir;
+
+    @Test
+    void roundTrip_readsEachAccountsRowsBackByRangeAndCursor() throws IOException {
+        List<TransactionView> history = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            boolean outgoing = i % 3 == 0;
+            // Two rows per microsecond on purpose: ties are broken by id
+            history.add(new TransactionView(1_000L + i, outgoing ? 7L : 9L, outgoing ? 9L : 7L, 100 + i,
+                    i == 0 ? "DEPOSIT" : "TRANSFER", START.plusNanos(i / 2 * 1_000L), i == 5 ? null : 50_000L - i));
+        }
+        Path file = dir.resolve("tx-2024-03.seg");
+        try (ArchiveSegment.Writer w = new ArchiveSegment.Writer(file)) {
+            w.append(3, new TransactionView(1L, 3L, 3L, 5, "DEPOSIT", START, 5L));
+            for (TransactionView t : history) w.append(7, t);
+            assertThat(w.transactions()).isEqualTo(1 + (ROWS + 2) / 3);
+            w.commit();
+        }
+
+        try (ArchiveSegment s = ArchiveSegment.open(file, MONTH)) {
+            List<TransactionView> all = new ArrayList<>();
+            s.forEach(7, START, START.plusMonths(1), all::add);
+            assertThat(all).isEqualTo(history);
+            assertThat(all.get(5).balanceAfter()).isNull();
+
+            TransactionView cursor = history.get(ROWS - 1);
+            List<TransactionView> page = new ArrayList<>();
+            s.collectBefore(7, cursor.createdAt(), cursor.id(), 3, page);
+            assertThat(page).containsExactly(history.get(ROWS - 2), history.get(ROWS - 3), history.get(ROWS - 4));
+
+            // A page that starts in the second block and runs into the first
+            TransactionView middle = history.get(ArchiveSegment.BLOCK_ROWS + 1);
+            page.clear();
+            s.collectBefore(7, middle.createdAt(), middle.id(), 4, page);
+            assertThat(page).extracting(TransactionView::id).containsExactly(
+                    middle.id() - 1, middle.id() - 2, middle.id() - 3, middle.id() - 4);
+
+            assertThat(s.latestAt(7, history.get(ArchiveSegment.BLOCK_ROWS).createdAt()))
+                    .isEqualTo(history.get(ArchiveSegment.BLOCK_ROWS + 1));
+            assertThat(s.latestAt(7, START.minusSeconds(1))).isNull();
+            assertThat(s.latestAt(3, START.plusDays(1)).balanceAfter()).isEqualTo(5L);
+            assertThat(s.latestAt(8, START.plusDays(1))).isNull();
+
+            List<TransactionView> slice = new ArrayList<>();
+            s.forEach(7, history.get(10).createdAt(), history.get(20).createdAt(), slice::add);
+            assertThat(slice).isEqualTo(history.subList(10, 20));
+        }
+    }
+
+    @Test
+    void writerClosedWithoutCommit_leavesNothingBehind() throws IOException {
+        Path file = dir.resolve("tx-2024-03.seg");
+        try (ArchiveSegment.Writer w = new ArchiveSegment.Writer(file)) {
+            w.append(1, new TransactionView(1L, 1L, 1L, 5, "DEPOSIT", START, 5L));
+        }
+        try (var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void open_rejectsAFileThatIsNotASegment() throws IOException {
+        Path file = dir.resolve("tx-2024-03.seg");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> ArchiveSegment.open(file, MONTH));
+    }
+}
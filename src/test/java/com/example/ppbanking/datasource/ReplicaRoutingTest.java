@@ -0,0 +1,103 @@
+package com.example.ppbanking.datasource;
+
+import com.example.ppbanking.TestUsers;
+import com.example.ppbanking.archive.TransactionArchive;
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import com.example.ppbanking.service.TransactionArchiver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two in-memory databases of its own; the "replica" is refreshed by copying the primary with an H2 script
+@SpringBootTest(properties = {
+        "app.datasource.replica.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:routingprimary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.url=" + ReplicaRoutingTest.REPLICA_URL})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:routingreplica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    private static final LocalDateTime JANUARY_2001 = LocalDateTime.of(2001, 1, 1, 0, 0);
+
+    @TempDir Path dir;
+
+    @Autowired private AccountService service;
+    @Autowired private UserRepository users;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private TransactionArchiver archiver;
+    @Autowired private TransactionArchive archive;
+
+    @Test
+    void readsGoToTheReplica_onceItHasTheUsersLatestVersion() throws Exception {
+        Long a = TestUsers.register(service, users, "routeA");
+        Long b = TestUsers.register(service, users, "routeB");
+        Long c = TestUsers.register(service, users, "routeC");
+        service.deposit(a, 1_000);
+        replicate();
+
+        // Replica now lags: it has the deposit but not the transfer, nor c's row changed behind the service's back
+        service.transfer(a, b, 300);
+        jdbc.update("update users set balance = 500 where id = ?", c);
+        jdbc.update("insert into transactions (id, sender_id, receiver_id, amount, type, created_at) "
+                + "values (next value for transactions_seq, ?, ?, 1, 'DEPOSIT', current_timestamp)", c, c);
+
+        // a's version moved past the replica's copy, so a reads from the primary
+        assertThat(service.getHistory(a, null, null).items()).extracting(TransactionView::type)
+                .containsExactly("TRANSFER", "DEPOSIT");
+        // c's version did not move, so the replica counts as current for c and lacks the new row
+        assertThat(service.getHistory(c, null, null).items()).isEmpty();
+        // Balance misses load from the primary whatever the replica holds
+        assertThat(service.getBalance(b)).isEqualTo(300);
+        assertThat(service.getBalance(c)).isEqualTo(500);
+
+        // Once the replica has caught up, a reads from it again; a row only it has proves where the read went
+        replicate();
+        try (Connection con = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement st = con.createStatement()) {
+            st.execute("insert into transactions (id, sender_id, receiver_id, amount, type, created_at) "
+                    + "values (next value for transactions_seq, " + a + ", " + a + ", 1, 'DEPOSIT', current_timestamp)");
+        }
+        assertThat(service.getHistory(a, null, null).items()).hasSize(3);
+    }
+
+    @Test
+    void archiving_readsThePrimary_whateverTheReplicaHolds() throws Exception {
+        Long a = TestUsers.register(service, users, "routeArchive");
+        // A long-gone month copied to the replica before the balance backfill reached it
+        jdbc.update("insert into transactions (id, sender_id, receiver_id, amount, type, created_at) values "
+                + "(next value for transactions_seq, ?, ?, 100, 'DEPOSIT', ?)", a, a, Timestamp.valueOf(JANUARY_2001));
+        replicate();
+        jdbc.update("update transactions set sender_balance_after = 100, receiver_balance_after = 100 where sender_id = ?", a);
+
+        assertThat(archiver.run().rowsArchived()).isEqualTo(1);
+
+        List<TransactionView> archived = new ArrayList<>();
+        archive.snapshot().forEach(a, JANUARY_2001, JANUARY_2001.plusMonths(1), archived::add);
+        assertThat(archived).extracting(TransactionView::balanceAfter).containsExactly(100L);
+    }
+
+    private void replicate() throws Exception {
+        String script = dir.resolve("primary.sql").toString();
+        jdbc.execute("script to '" + script + "'");
+        try (Connection con = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement st = con.createStatement()) {
+            st.execute("drop all objects");
+            st.execute("runscript from '" + script + "'");
+        }
+    }
+}
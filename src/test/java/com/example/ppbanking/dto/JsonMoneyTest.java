@@ -0,0 +1,32 @@
+package com.example.ppbanking.dto;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonMoneyTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    @Test
+    void amounts_areReadAsCents_upToTheLimit() throws Exception {
+        assertThat(om.readValue("{\"amount\": 12.34}", AmountRequest.class).amount()).isEqualTo(1_234);
+        assertThat(om.readValue("{\"amount\": \"0.5\"}", AmountRequest.class).amount()).isEqualTo(50);
+        assertThat(om.readValue("{\"amount\": 999999999999.99}", AmountRequest.class).amount())
+                .isEqualTo(JsonMoney.MAX_CENTS);
+    }
+
+    @Test
+    void amountsPastTheLimit_areRejected_evenWhenTheyWouldWrapAroundALong() {
+        assertThrows(JsonMappingException.class, () -> om.readValue("{\"amount\": 1000000000000}", AmountRequest.class));
+        // 2^64 + 100 cents: as a long this wraps to exactly 1.00
+        assertThrows(JsonMappingException.class,
+                () -> om.readValue("{\"amount\": 184467440737095517.16}", AmountRequest.class));
+        // Long.MIN_VALUE cents, whose absolute value is still negative as a long
+        assertThrows(JsonMappingException.class,
+                () -> om.readValue("{\"amount\": \"-92233720368547758.08\"}", AmountRequest.class));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.ppbanking.engine;
+
+import com.example.ppbanking.TestUsers;
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import com.example.ppbanking.service.IdempotencyService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "app.engine.enabled=true")
+@ActiveProfiles("test")
+class EngineModeTest {
+
+    @TempDir static Path walDir;
+
+    @DynamicPropertySource
+    static void wal(DynamicPropertyRegistry registry) {
+        registry.add("app.engine.walDir", walDir::toString);
+    }
+
+    @Autowired private AccountService service;
+    @Autowired private UserRepository users;
+    @Autowired private TransferEngine engine;
+    @Autowired private EngineProjector projector;
+    @Autowired private IdempotencyService idempotency;
+
+    @Test
+    void moneyMovesThroughTheEngine_andIsProjectedIntoTheTables() throws InterruptedException {
+        Long a = TestUsers.register(service, users, "ea");
+        Long b = TestUsers.register(service, users, "eb");
+
+        service.deposit(a, 1_000);
+        service.transfer(a, b, 400);
+        service.withdraw(b, 50);
+        var ex = assertThrows(ApiException.class, () -> service.transfer(b, a, 1_000));
+        assertThat(ex.getCode()).isEqualTo("INSUFFICIENT_FUNDS");
+
+        // Reads come from the engine, so they see acknowledged operations immediately
+        assertThat(service.getBalance(a)).isEqualTo(600);
+        assertThat(service.getBalance(b)).isEqualTo(350);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (projector.projectedSeq() < engine.durableSeq() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(users.findBalance(a)).hasValue(600L);
+        assertThat(users.findBalance(b)).hasValue(350L);
+        assertThat(service.getHistory(b, null, null).items()).extracting(t -> t.type())
+                .containsExactly("WITHDRAW", "TRANSFER");
+    }
+
+    @Test
+    void idempotencyKeys_areRejected_sinceTheKeyCannotCommitWithTheEngineEffect() {
+        Long a = TestUsers.register(service, users, "ei");
+        var ex = assertThrows(ApiException.class,
+                () -> idempotency.execute(a, "k1", "deposit:100", () -> service.deposit(a, 100)));
+        assertThat(ex.getCode()).isEqualTo("IDEMPOTENCY_UNSUPPORTED");
+        assertThat(service.getBalance(a)).isZero();
+    }
+}
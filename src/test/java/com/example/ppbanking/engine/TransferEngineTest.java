@@ -0,0 +1,127 @@
+package com.example.ppbanking.engine;
+
+import com.example.ppbanking.exception.ApiException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransferEngineTest {
+
+    @TempDir Path dir;
+
+    private final List<EngineRecord> projected = new CopyOnWriteArrayList<>();
+
+    private TransferEngine engine(long... balances) throws IOException {
+        TransferEngine engine = new TransferEngine(WriteAheadLog.open(dir, 4800, true), projected::addAll, 64, 16, 1);
+        for (int id = 1; id <= balances.length; id++) engine.load(id, balances[id - 1]);
+        return engine;
+    }
+
+    @Test
+    void appliesValidCommands_andRejectsTheRest() throws Exception {
+        TransferEngine engine = engine(0, 0);
+        engine.recover(0);
+        engine.start();
+
+        engine.execute(CommandType.DEPOSIT, 1, 1, 1_000);
+        engine.execute(CommandType.TRANSFER, 1, 2, 300);
+        engine.execute(CommandType.WITHDRAW, 2, 2, 100);
+
+        assertThat(code(() -> engine.execute(CommandType.TRANSFER, 1, 2, 5_000))).isEqualTo("INSUFFICIENT_FUNDS");
+        assertThat(code(() -> engine.execute(CommandType.TRANSFER, 1, 99, 1))).isEqualTo("RECEIVER_NOT_FOUND");
+        assertThat(code(() -> engine.execute(CommandType.DEPOSIT, 99, 99, 1))).isEqualTo("USER_NOT_FOUND");
+
+        engine.open(99);
+        engine.execute(CommandType.DEPOSIT, 99, 99, 5);
+        engine.close();
+
+        assertThat(engine.balance(1)).hasValue(700);
+        assertThat(engine.balance(2)).hasValue(200);
+        assertThat(engine.balance(99)).hasValue(5);
+        assertThat(engine.balance(3)).isEmpty();
+        assertThat(projected).extracting(EngineRecord::seq).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void anIdTheEngineCannotHold_rejectsThatCommandOnly() throws Exception {
+        TransferEngine engine = engine(0);
+        engine.recover(0);
+        engine.start();
+
+        assertThat(code(() -> engine.open(Integer.MAX_VALUE))).isEqualTo("ACCOUNT_OUT_OF_RANGE");
+        engine.execute(CommandType.DEPOSIT, 1, 1, 100);
+        engine.close();
+
+        assertThat(engine.balance(1)).hasValue(100);
+    }
+
+    @Test
+    void restart_replaysTheLogPastTheCheckpoint_acrossSegments() throws Exception {
+        TransferEngine first = engine(10_000, 0);
+        first.recover(0);
+        first.start();
+        // 4800-byte segments hold 100 records, so this spans three of them
+        for (int i = 0; i < 250; i++) first.execute(CommandType.TRANSFER, 1, 2, 10);
+        first.close();
+        assertThat(dir.toFile().list()).hasSize(3);
+
+        // Nothing was projected: recover from the original balances and the whole log
+        projected.clear();
+        TransferEngine second = engine(10_000, 0);
+        assertThat(second.recover(0)).isEqualTo(250);
+        assertThat(second.balance(1)).hasValue(7_500);
+        assertThat(second.balance(2)).hasValue(2_500);
+        assertThat(projected).hasSize(250);
+
+        // The first 120 were projected: balances as of that checkpoint plus the remaining 130
+        projected.clear();
+        TransferEngine third = engine(10_000 - 1_200, 1_200);
+        assertThat(third.recover(120)).isEqualTo(130);
+        assertThat(third.balance(1)).hasValue(7_500);
+        assertThat(projected.get(0).seq()).isEqualTo(121);
+
+        // New commands continue the sequence in a fresh segment
+        third.start();
+        third.execute(CommandType.DEPOSIT, 1, 1, 1);
+        third.close();
+        assertThat(third.durableSeq()).isEqualTo(251);
+    }
+
+    @Test
+    void tornTail_isIgnoredOnReplay() throws Exception {
+        TransferEngine first = engine(0);
+        first.recover(0);
+        first.start();
+        first.execute(CommandType.DEPOSIT, 1, 1, 100);
+        first.execute(CommandType.DEPOSIT, 1, 1, 200);
+        first.close();
+
+        // Corrupt the second record, as a write cut short by a crash would
+        Path segment;
+        try (var files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] {0x7f}), WriteAheadLog.RECORD_BYTES + 30);
+        }
+
+        TransferEngine second = engine(0);
+        assertThat(second.recover(0)).isEqualTo(1);
+        assertThat(second.balance(1)).hasValue(100);
+    }
+
+    private static String code(Runnable call) {
+        return assertThrows(ApiException.class, call::run).getCode();
+    }
+}
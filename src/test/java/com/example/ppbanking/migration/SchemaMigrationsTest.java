@@ -0,0 +1,65 @@
+package com.example.ppbanking.migration;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemaMigrationsTest {
+
+    @Test
+    void doubleAmounts_becomeBigintCents_roundedToTheNearestCent() {
+        JdbcDataSource ds = dataSource();
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        // Schema from before minor units: amounts as DOUBLE major units, with the usual binary noise
+        jdbc.execute("create table users (username varchar(50), balance double precision)");
+        jdbc.execute("create table transactions (amount double precision)");
+        jdbc.update("insert into users values ('a', 12.34), ('b', 0.1 + 0.2), ('c', 0)");
+        jdbc.update("insert into transactions values (19.99), (1.005)");
+
+        new SchemaMigrations(ds, 50).afterPropertiesSet();
+
+        assertThat(jdbc.queryForList("select balance from users order by username", Long.class))
+                .containsExactly(1_234L, 30L, 0L);
+        assertThat(jdbc.queryForList("select amount from transactions order by amount", Long.class))
+                .containsExactly(100L, 1_999L);
+        assertThat(jdbc.queryForObject(
+                "select data_type from information_schema.columns where table_name = 'USERS' and column_name = 'BALANCE'",
+                String.class)).isEqualTo("BIGINT");
+
+        // Already migrated: running again changes nothing
+        new SchemaMigrations(ds, 50).afterPropertiesSet();
+        assertThat(jdbc.queryForList("select balance from users order by username", Long.class))
+                .containsExactly(1_234L, 30L, 0L);
+    }
+
+    @Test
+    void identityIds_moveToPooledSequences_startingAfterExistingRows() {
+        JdbcDataSource ds = dataSource();
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        // Schema as IDENTITY-era Hibernate created it
+        jdbc.execute("create table users (id bigint generated by default as identity primary key, balance bigint)");
+        jdbc.execute("create table transactions (id bigint generated by default as identity primary key, amount bigint)");
+        jdbc.update("insert into users (balance) values (1), (2), (3)");
+
+        new SchemaMigrations(ds, 50).afterPropertiesSet();
+
+        // First pooled block is (next - 50, next], i.e. 4..53 right after the existing max id 3
+        assertThat(jdbc.queryForObject("select next value for users_seq", Long.class)).isEqualTo(53);
+        assertThat(jdbc.queryForObject("select next value for transactions_seq", Long.class)).isEqualTo(50);
+        assertThat(jdbc.queryForObject(
+                "select is_identity from information_schema.columns where table_name = 'USERS' and column_name = 'ID'",
+                String.class)).isEqualTo("NO");
+
+        // A later allocation-size change realigns the existing sequence instead of recreating it
+        new SchemaMigrations(ds, 100).afterPropertiesSet();
+        assertThat(jdbc.queryForObject("select next value for users_seq", Long.class)).isEqualTo(153);
+    }
+
+    private static JdbcDataSource dataSource() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:migration" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        return ds;
+    }
+}
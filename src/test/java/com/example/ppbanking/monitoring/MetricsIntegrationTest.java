@@ -0,0 +1,97 @@
+package com.example.ppbanking.monitoring;
+
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.security.JwtService;
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+// Tests leave metrics export off by default; this brings back the Prometheus registry and its endpoint
+@AutoConfigureObservability(tracing = false)
+class MetricsIntegrationTest {
+
+    @Autowired private MeterRegistry registry;
+    @Autowired private AccountService account;
+    @Autowired private UserRepository users;
+    @Autowired private MockMvc mvc;
+    @Autowired private JwtService jwt;
+    @Autowired private PrincipalCache principals;
+
+    @Test
+    void accountOperations_areTimedByOutcome() {
+        String name = "metrics" + System.nanoTime();
+        account.register(name, "pass12345", "USER");
+        Long id = users.findByUsername(name).orElseThrow().getId();
+        long ok = count("withdraw", "OK");
+        long insufficient = count("withdraw", "INSUFFICIENT_FUNDS");
+
+        account.deposit(id, 500);
+        account.withdraw(id, 200);
+        assertThrows(ApiException.class, () -> account.withdraw(id, 1_000));
+
+        assertThat(count("withdraw", "OK")).isEqualTo(ok + 1);
+        assertThat(count("withdraw", "INSUFFICIENT_FUNDS")).isEqualTo(insufficient + 1);
+        assertThat(count("deposit", "OK")).isPositive();
+    }
+
+    @Test
+    void loginAndTokenChecks_recordTimings_andPoolAndHibernateMetersAreBound() throws Exception {
+        String name = "metrics" + System.nanoTime();
+        account.register(name, "pass12345", "USER");
+        MvcResult login = mvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + name + "\",\"password\":\"pass12345\"}"))
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(login)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = body.replaceAll(".*\"accessToken\":\"([^\"]+)\".*", "$1");
+        mvc.perform(get("/account/balance").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+
+        assertThat(registry.get("bank.auth.operations").tag("operation", "login").tag("outcome", "OK").timer().count()).isPositive();
+        assertThat(registry.get("bank.password.hash").tag("operation", "matches").timer().count()).isPositive();
+        assertThat(registry.get("bank.jwt.verify").tag("outcome", "valid").timer().count()).isPositive();
+        assertThat(registry.get("bank.auth.token").tag("outcome", "authenticated").timer().count()).isPositive();
+        assertThat(registry.find("hikaricp.connections.active").gauge()).isNotNull();
+        assertThat(registry.find("hibernate.statements").functionCounter()).isNotNull();
+    }
+
+    @Test
+    void prometheusScrape_needsTheScraperAccount_notAUserToken() throws Exception {
+        String name = "metrics" + System.nanoTime();
+        account.register(name, "pass12345", "ADMIN");
+        String token = jwt.generateAccess(principals.get(name));
+
+        mvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "wrong"))).andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "scrape12345"))).andExpect(status().isOk());
+        mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    private long count(String operation, String outcome) {
+        var timer = registry.find("bank.account.operations").tag("operation", operation).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.ppbanking.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles({"test", "virtual"})
+class VirtualThreadProfileTest {
+
+    @Autowired @Qualifier("applicationTaskExecutor") private AsyncTaskExecutor taskExecutor;
+    @Autowired private VirtualThreadPinningMonitor pinningMonitor;
+
+    @Test
+    void virtualProfile_runsAsyncWorkOnVirtualThreads_andMonitorsPinning() {
+        CompletableFuture<Boolean> virtual = taskExecutor.submitCompletable(() -> Thread.currentThread().isVirtual());
+        assertThat(virtual.join()).isTrue();
+        assertThat(pinningMonitor.isRunning()).isTrue();
+    }
+}
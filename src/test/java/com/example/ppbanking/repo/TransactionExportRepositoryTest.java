@@ -0,0 +1,89 @@
+package com.example.ppbanking.repo;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionExportRepositoryTest {
+    private static final int ROWS = 5_000_000;
+    private static final long MB = 1024 * 1024;
+
+    @TempDir Path dir;
+
+    @Test
+    void export_streamsMillionsOfRows_inConstantMemory() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:" + dir.resolve("export") + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        // Account 1 alternately sends and receives, one transaction per second
+        jdbc.execute("create table transactions as select cast(x as bigint) id, " +
+                "cast(case when mod(x, 2) = 0 then 1 else 2 end as bigint) sender_id, " +
+                "cast(case when mod(x, 2) = 0 then 2 else 1 end as bigint) receiver_id, " +
+                "cast(x as bigint) amount, 'TRANSFER' type, " +
+                "cast(dateadd(second, x, timestamp '2020-01-01 00:00:00') as timestamp(6)) created_at, " +
+                "cast(null as bigint) sender_balance_after, cast(null as bigint) receiver_balance_after " +
+                "from system_range(1, " + ROWS + ")");
+        jdbc.execute("create index idx_tx_sender_created on transactions (sender_id, created_at, id)");
+        jdbc.execute("create index idx_tx_receiver_created on transactions (receiver_id, created_at, id)");
+        // A small page cache for the export itself, so the table does not live on the heap being measured
+        jdbc.execute("set cache_size 8192");
+
+        TransactionExportRepositoryImpl repo = new TransactionExportRepositoryImpl(jdbc);
+        long baseline = usedHeapAfterGc();
+        AtomicLong rows = new AtomicLong();
+        AtomicLong lastId = new AtomicLong();
+        AtomicLong peak = new AtomicLong();
+        repo.forEachForUser(1L, LocalDateTime.of(2000, 1, 1, 0, 0), LocalDateTime.of(2100, 1, 1, 0, 0), t -> {
+            assertThat(t.id()).isEqualTo(lastId.get() + 1);
+            lastId.set(t.id());
+            if (rows.incrementAndGet() % 1_000_000 == 0) peak.accumulateAndGet(usedHeapAfterGc(), Math::max);
+        });
+
+        jdbc.execute("shutdown");
+
+        assertThat(rows.get()).isEqualTo(ROWS);
+        // Holding the rows would take several hundred MB; streaming stays within the driver's buffers
+        assertThat((peak.get() - baseline) / MB).isLessThan(32);
+    }
+
+    @Test
+    void export_honoursTheTimeRange_andSkipsSelfTransactionsOnTheReceivingSide() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:export" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("create table transactions (id bigint primary key, sender_id bigint, receiver_id bigint, " +
+                "amount bigint, type varchar(255), created_at timestamp(6), sender_balance_after bigint, " +
+                "receiver_balance_after bigint)");
+        jdbc.update("insert into transactions values " +
+                "(1, 1, 1, 100, 'DEPOSIT', timestamp '2024-01-01 10:00:00', 100, 100), " +
+                "(2, 1, 2, 10, 'TRANSFER', timestamp '2024-01-02 10:00:00', 90, 10), " +
+                "(3, 2, 1, 20, 'TRANSFER', timestamp '2024-01-02 10:00:00', 0, 110), " +
+                "(4, 1, 1, 5, 'WITHDRAW', timestamp '2024-01-03 10:00:00', 105, 105)");
+
+        List<Long> ids = new ArrayList<>();
+        List<Long> balances = new ArrayList<>();
+        new TransactionExportRepositoryImpl(jdbc).forEachForUser(1L, LocalDateTime.of(2024, 1, 1, 12, 0),
+                LocalDateTime.of(2024, 1, 3, 10, 0), t -> {
+                    ids.add(t.id());
+                    balances.add(t.balanceAfter());
+                });
+        assertThat(ids).containsExactly(2L, 3L);
+        // Each row carries account 1's own balance, whichever side it was on
+        assertThat(balances).containsExactly(90L, 110L);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.ppbanking.repo;
 
+import com.example.ppbanking.archive.ArchiveSnapshot;
 import com.example.ppbanking.domain.Transaction;
 import com.example.ppbanking.domain.User;
+import com.example.ppbanking.dto.TransactionView;
 import com.example.ppbanking.repo.TransactionRepository;
 import com.example.ppbanking.repo.UserRepository;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDateTime;
 import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -18,22 +23,87 @@ class TransactionRepositoryTest {
 
     @Autowired private UserRepository users;
     @Autowired private TransactionRepository txs;
+    @Autowired private TestEntityManager em;
 
     @Test
     void findAllForUser_returnsHistory() {
-        User a = new User(); a.setUsername("a"); a.setPasswordHash("x"); a.setRole("USER"); a.setBalance(0.0);
-        User b = new User(); b.setUsername("b"); b.setPasswordHash("y"); b.setRole("USER"); b.setBalance(0.0);
+        User a = new User(); a.setUsername("a"); a.setPasswordHash("x"); a.setRole("USER"); a.setBalance(0);
+        User b = new User(); b.setUsername("b"); b.setPasswordHash("y"); b.setRole("USER"); b.setBalance(0);
         users.saveAll(List.of(a,b));
 
         Transaction t = new Transaction();
         t.setSenderId(a.getId());
         t.setReceiverId(a.getId());
-        t.setAmount(100.0);
+        t.setAmount(10_000);
         t.setType("DEPOSIT");
         txs.save(t);
 
         var history = txs.findAllForUser(a.getId());
         assertThat(history).hasSize(1);
-        assertThat(history.get(0).getType()).isEqualTo("DEPOSIT");
+        assertThat(history.get(0).type()).isEqualTo("DEPOSIT");
+    }
+
+    @Test
+    void findPageForUser_walksHistoryByKeyset() {
+        User a = new User(); a.setUsername("a"); a.setPasswordHash("x"); a.setRole("USER"); a.setBalance(0);
+        User b = new User(); b.setUsername("b"); b.setPasswordHash("y"); b.setRole("USER"); b.setBalance(0);
+        users.saveAll(List.of(a,b));
+
+        // Same timestamp on every row so ordering has to fall back to id.
+        LocalDateTime ts = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            Transaction t = new Transaction();
+            t.setSenderId(i % 2 == 0 ? a.getId() : b.getId());
+            t.setReceiverId(i % 2 == 0 ? b.getId() : a.getId());
+            t.setAmount(1_000 + i);
+            t.setType("TRANSFER");
+            t.setCreatedAt(ts);
+            txs.save(t);
+        }
+
+        var first = txs.findPageForUser(a.getId(), ArchiveSnapshot.BEGINNING, ts.plusDays(1), Long.MAX_VALUE, 3);
+        assertThat(first).extracting(TransactionView::amount).containsExactly(1_004L, 1_003L, 1_002L);
+
+        TransactionView last = first.get(2);
+        var second = txs.findPageForUser(a.getId(), ArchiveSnapshot.BEGINNING, last.createdAt(), last.id(), 3);
+        assertThat(second).extracting(TransactionView::amount).containsExactly(1_001L, 1_000L);
+    }
+
+    @Test
+    void findAllForUser_listsSelfTransactionsOnce() {
+        User a = new User(); a.setUsername("a"); a.setPasswordHash("x"); a.setRole("USER"); a.setBalance(0);
+        User b = new User(); b.setUsername("b"); b.setPasswordHash("y"); b.setRole("USER"); b.setBalance(0);
+        users.saveAll(List.of(a,b));
+
+        Transaction deposit = new Transaction();
+        deposit.setSenderId(a.getId()); deposit.setReceiverId(a.getId()); deposit.setAmount(5_000); deposit.setType("DEPOSIT");
+        Transaction in = new Transaction();
+        in.setSenderId(b.getId()); in.setReceiverId(a.getId()); in.setAmount(500); in.setType("TRANSFER");
+        Transaction out = new Transaction();
+        out.setSenderId(a.getId()); out.setReceiverId(b.getId()); out.setAmount(700); out.setType("TRANSFER");
+        txs.saveAll(List.of(deposit, in, out));
+
+        assertThat(txs.findAllForUser(a.getId())).hasSize(3);
+        assertThat(txs.findPageForUser(a.getId(), ArchiveSnapshot.BEGINNING, LocalDateTime.now().plusDays(1), Long.MAX_VALUE, 10))
+                .hasSize(3);
+        assertThat(txs.findAllForUser(b.getId())).hasSize(2);
+    }
+
+    @Test
+    void findPageForUser_readsViews_withoutManagingEntities() {
+        User a = new User(); a.setUsername("a"); a.setPasswordHash("x"); a.setRole("USER"); a.setBalance(0);
+        users.save(a);
+        Transaction t = new Transaction();
+        t.setSenderId(a.getId()); t.setReceiverId(a.getId()); t.setAmount(1_234); t.setType("DEPOSIT");
+        t.setSenderBalanceAfter(1_234L); t.setReceiverBalanceAfter(1_234L);
+        txs.save(t);
+        em.flush();
+        em.clear();
+
+        var page = txs.findPageForUser(a.getId(), ArchiveSnapshot.BEGINNING, LocalDateTime.now().plusDays(1), Long.MAX_VALUE, 10);
+
+        assertThat(page).containsExactly(
+                new TransactionView(t.getId(), a.getId(), a.getId(), 1_234, "DEPOSIT", t.getCreatedAt(), 1_234L));
+        assertThat(em.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
     }
 }
@@ -20,7 +20,7 @@ class UserRepositoryTest {
         User u = new User();
         u.setUsername("maksym");
         u.setPasswordHash("hash");
-        u.setBalance(0.0);
+        u.setBalance(0);
         u.setRole("USER");
         users.save(u);
 
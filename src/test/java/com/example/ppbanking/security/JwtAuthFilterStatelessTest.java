@@ -0,0 +1,52 @@
+package com.example.ppbanking.security;
+
+import com.example.ppbanking.TestUsers;
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.jwt.stateless=true")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class JwtAuthFilterStatelessTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private JwtService jwt;
+    @Autowired private PrincipalCache principals;
+    @Autowired private AccountService account;
+    @Autowired private UserRepository users;
+
+    @Test
+    void accessTokenClaims_authenticateWithoutUserLookup() throws Exception {
+        String name = TestUsers.uniqueName("stateless");
+        account.register(name, "pass12345", "USER");
+        Long id = users.findByUsername(name).map(User::getId).orElseThrow();
+        String token = jwt.generateAccess(new AppPrincipal(id, name, "USER"));
+
+        long before = principals.dbLookups();
+        mvc.perform(get("/account/balance").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertThat(principals.dbLookups()).isEqualTo(before);
+    }
+
+    @Test
+    void tokenWithoutClaims_fallsBackToPrincipalCache() throws Exception {
+        String name = TestUsers.uniqueName("legacy");
+        account.register(name, "pass12345", "USER");
+        // Refresh tokens carry only the subject, like access tokens issued before uid/role existed
+        String token = jwt.generateRefresh(name);
+
+        mvc.perform(get("/account/balance").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+}
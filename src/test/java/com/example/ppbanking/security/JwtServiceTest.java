@@ -0,0 +1,42 @@
+package com.example.ppbanking.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "this_is_a_test_secret_that_is_long_enough_123456";
+
+    private final JwtService jwt = new JwtService(SECRET, 60_000, 120_000, 100, new SimpleMeterRegistry());
+
+    @Test
+    void repeatedVerification_ofSameToken_isServedFromCache() {
+        String token = jwt.generateAccess(new AppPrincipal(7L, "kate", "USER"));
+
+        assertThat(jwt.principalFrom(jwt.parse(token))).isEqualTo(new AppPrincipal(7L, "kate", "USER"));
+        assertThat(jwt.extractUsername(token)).isEqualTo("kate");
+
+        assertThat(jwt.verifiedCacheStats().missCount()).isEqualTo(1);
+        assertThat(jwt.verifiedCacheStats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tamperedOrExpiredTokens_areRejected_andNotCached() {
+        String token = jwt.generateAccess(new AppPrincipal(7L, "kate", "USER"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThatThrownBy(() -> jwt.parse(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwt.parse(tampered)).isInstanceOf(JwtException.class);
+
+        JwtService shortLived = new JwtService(SECRET, -1_000, -1_000, 100, new SimpleMeterRegistry());
+        String expired = shortLived.generateRefresh("kate");
+        assertThatThrownBy(() -> jwt.parse(expired)).isInstanceOf(ExpiredJwtException.class);
+
+        assertThat(jwt.verifiedCacheStats().hitCount()).isZero();
+        assertThat(jwt.verifiedCacheStats().loadSuccessCount()).isZero();
+    }
+}
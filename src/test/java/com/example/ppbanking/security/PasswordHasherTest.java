@@ -0,0 +1,56 @@
+package com.example.ppbanking.security;
+
+import com.example.ppbanking.exception.TooBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    /** Encoder whose hashing blocks until released, standing in for a slow BCrypt. */
+    private static final class GatedEncoder implements PasswordEncoder {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String encode(CharSequence raw) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + raw;
+        }
+
+        @Override
+        public boolean matches(CharSequence raw, String encoded) {
+            return encode(raw).equals(encoded);
+        }
+    }
+
+    @Test
+    void fullQueue_isRejectedWithRetryAfter_andQueuedWorkStillCompletes() {
+        GatedEncoder encoder = new GatedEncoder();
+        PasswordHasher hasher = new PasswordHasher(encoder, 1, 1, 3, new SimpleMeterRegistry());
+        try {
+            CompletableFuture<String> running = hasher.encode("a");
+            CompletableFuture<Boolean> queued = hasher.matches("b", "hashed:b");
+
+            assertThatThrownBy(() -> hasher.encode("c"))
+                    .isInstanceOfSatisfying(TooBusyException.class,
+                            e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3));
+
+            encoder.release.countDown();
+            assertThat(running.join()).isEqualTo("hashed:a");
+            assertThat(queued.join()).isTrue();
+        } finally {
+            hasher.shutdown();
+        }
+    }
+}
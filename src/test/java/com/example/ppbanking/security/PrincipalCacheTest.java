@@ -0,0 +1,49 @@
+package com.example.ppbanking.security;
+
+import com.example.ppbanking.TestUsers;
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PrincipalCacheTest {
+
+    @Autowired private PrincipalCache principals;
+    @Autowired private AccountService service;
+    @Autowired private UserRepository users;
+
+    @Test
+    void repeatedLookups_hitTheCache_untilTheUserChanges() {
+        String name = TestUsers.uniqueName("cached");
+        service.register(name, "pass12345", "USER");
+
+        long before = principals.dbLookups();
+        AppPrincipal first = principals.get(name);
+        AppPrincipal second = principals.get(name);
+        assertThat(first.role()).isEqualTo("USER");
+        assertThat(second).isSameAs(first);
+        assertThat(principals.dbLookups() - before).isEqualTo(1);
+
+        User u = users.findByUsername(name).orElseThrow();
+        u.setRole("ADMIN");
+        users.save(u);
+
+        assertThat(principals.get(name).role()).isEqualTo("ADMIN");
+        assertThat(principals.dbLookups() - before).isEqualTo(2);
+
+        // A save that only moves the balance keeps the cached principal
+        User reloaded = users.findByUsername(name).orElseThrow();
+        reloaded.setBalance(500);
+        users.save(reloaded);
+
+        assertThat(principals.get(name).role()).isEqualTo("ADMIN");
+        assertThat(principals.dbLookups() - before).isEqualTo(2);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.TestUsers;
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.repo.UserRepository;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Multi-threaded transfers over a small set of accounts, run once per concurrency mode. Money must
+ * be conserved however the threads interleave; throughput per thread count is logged for comparison.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AccountServiceConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountServiceConcurrencyTest.class);
+    private static final int ACCOUNTS = 6;
+    private static final int TRANSFERS_PER_THREAD = 200;
+    private static final long OPENING_BALANCE = 100_000;
+
+    @Nested
+    @TestPropertySource(properties = "app.account.concurrency=optimistic")
+    class Optimistic extends Scenario {}
+
+    @Nested
+    @TestPropertySource(properties = "app.account.concurrency=pessimistic")
+    class Pessimistic extends Scenario {}
+
+    @Nested
+    @TestPropertySource(properties = "app.account.concurrency=atomic")
+    class Atomic extends Scenario {}
+
+    abstract static class Scenario {
+        @Autowired private AccountService service;
+        @Autowired private UserRepository users;
+
+        @Test
+        void concurrentTransfers_conserveMoney() throws Exception {
+            String prefix = TestUsers.uniqueName(getClass().getSimpleName().toLowerCase());
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < ACCOUNTS; i++) {
+                String name = prefix + "_" + i;
+                service.register(name, "pass12345", "USER");
+                Long id = users.findByUsername(name).map(User::getId).orElseThrow();
+                service.deposit(id, OPENING_BALANCE);
+                ids.add(id);
+            }
+
+            for (int threads : new int[] {1, 2, 4, 8}) {
+                AtomicInteger ok = new AtomicInteger();
+                AtomicInteger insufficient = new AtomicInteger();
+                AtomicInteger busy = new AtomicInteger();
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                List<Callable<Void>> jobs = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    jobs.add(() -> {
+                        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                        for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                            // Account 0 is a hot merchant account that half of all transfers go through.
+                            Long from = ids.get(rnd.nextInt(ACCOUNTS));
+                            Long to = rnd.nextBoolean() ? ids.get(0) : ids.get(rnd.nextInt(ACCOUNTS));
+                            if (from.equals(to)) continue;
+                            try {
+                                service.transfer(from, to, 100 + rnd.nextInt(5_000));
+                                ok.incrementAndGet();
+                            } catch (ApiException e) {
+                                // Rejected cleanly, nothing moved: drained sender, or optimistic retries exhausted.
+                                (e.getCode().equals("INSUFFICIENT_FUNDS") ? insufficient : busy).incrementAndGet();
+                            }
+                        }
+                        return null;
+                    });
+                }
+
+                long started = System.nanoTime();
+                for (Future<Void> f : pool.invokeAll(jobs)) f.get();
+                double seconds = (System.nanoTime() - started) / 1e9;
+                pool.shutdown();
+
+                log.info("{} threads={} transfers={} insufficientFunds={} busy={} throughput={} tx/s",
+                        getClass().getSimpleName(), threads, ok.get(), insufficient.get(), busy.get(),
+                        Math.round(ok.get() / seconds));
+
+                long total = ids.stream().mapToLong(service::getBalance).sum();
+                assertThat(total).isEqualTo(ACCOUNTS * OPENING_BALANCE);
+                assertThat(ok.get()).isPositive();
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.ppbanking.service;
 
 import com.example.ppbanking.domain.User;
+import com.example.ppbanking.dto.BatchTransferResponse;
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.dto.TransferRequest;
 import com.example.ppbanking.exception.ApiException;
 import com.example.ppbanking.repo.UserRepository;
 import com.example.ppbanking.service.AccountService;
@@ -11,6 +14,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -35,33 +41,128 @@ class AccountServiceTest {
 
     @Test
     void deposit_increasesBalance_andLogsTx() {
-        service.deposit(idA, 200.0);
+        service.deposit(idA, 20_000);
         var account = service.getAccount(idA);
-        assertThat(account.balance()).isEqualTo(200.0);
+        assertThat(account.balance()).isEqualTo(20_000);
         assertThat(account.history()).isNotEmpty();
-        assertThat(account.history().get(0).getType()).isEqualTo("DEPOSIT");
+        assertThat(account.history().get(0).type()).isEqualTo("DEPOSIT");
     }
 
     @Test
     void withdraw_insufficientFunds_throwsApiException422() {
-        var ex = assertThrows(ApiException.class, () -> service.withdraw(idA, 50.0));
+        var ex = assertThrows(ApiException.class, () -> service.withdraw(idA, 5_000));
         assertThat(ex.getStatus().value()).isEqualTo(422);
     }
 
     @Test
     void transfer_movesMoney_betweenAccounts() {
-        service.deposit(idA, 300.0);
-        service.transfer(idA, idB, 120.0);
+        service.deposit(idA, 30_000);
+        service.transfer(idA, idB, 12_000);
 
         var a = service.getAccount(idA);
         var b = service.getAccount(idB);
-        assertThat(a.balance()).isEqualTo(180.0);
-        assertThat(b.balance()).isEqualTo(120.0);
+        assertThat(a.balance()).isEqualTo(18_000);
+        assertThat(b.balance()).isEqualTo(12_000);
     }
 
     @Test
     void transfer_toSelf_is400() {
-        var ex = assertThrows(ApiException.class, () -> service.transfer(idA, idA, 10.0));
+        var ex = assertThrows(ApiException.class, () -> service.transfer(idA, idA, 1_000));
         assertThat(ex.getStatus().value()).isEqualTo(400);
     }
+
+    @Test
+    void history_isPaged_withCursor() {
+        for (int i = 1; i <= 5; i++) service.deposit(idA, i);
+
+        var first = service.getHistory(idA, null, 2);
+        assertThat(first.items()).hasSize(2);
+        assertThat(first.nextCursor()).isNotNull();
+
+        var second = service.getHistory(idA, first.nextCursor(), 2);
+        var third = service.getHistory(idA, second.nextCursor(), 2);
+        assertThat(third.items()).hasSize(1);
+        assertThat(third.nextCursor()).isNull();
+    }
+
+    @Test
+    void history_badCursor_is400() {
+        var ex = assertThrows(ApiException.class, () -> service.getHistory(idA, "not-a-cursor", 10));
+        assertThat(ex.getStatus().value()).isEqualTo(400);
+    }
+
+    @Test
+    void transfer_insufficientFunds_leavesBothBalances() {
+        service.deposit(idA, 5_000);
+        var ex = assertThrows(ApiException.class, () -> service.transfer(idA, idB, 8_000));
+        assertThat(ex.getCode()).isEqualTo("INSUFFICIENT_FUNDS");
+        assertThat(service.getBalance(idA)).isEqualTo(5_000);
+        assertThat(service.getBalance(idB)).isEqualTo(0);
+    }
+
+    @Test
+    void transfer_toMissingUser_is404() {
+        service.deposit(idA, 5_000);
+        var ex = assertThrows(ApiException.class, () -> service.transfer(idA, idB + 1_000, 1_000));
+        assertThat(ex.getCode()).isEqualTo("RECEIVER_NOT_FOUND");
+    }
+
+    @Test
+    void transferBatch_allOrNothing_appliesEveryItem_orNone() {
+        service.deposit(idA, 10_000);
+        var ok = service.transferBatch(idA, List.of(
+                new TransferRequest(idB, 1_000), new TransferRequest(idB, 2_000)), BatchMode.ALL_OR_NOTHING);
+        assertThat(ok.applied()).isEqualTo(2);
+        assertThat(ok.debited()).isEqualTo(3_000);
+        assertThat(service.getBalance(idA)).isEqualTo(7_000);
+        assertThat(service.getBalance(idB)).isEqualTo(3_000);
+        assertThat(service.getHistory(idB, null, 10).items()).hasSize(2);
+
+        var ex = assertThrows(ApiException.class, () -> service.transferBatch(idA, List.of(
+                new TransferRequest(idB, 1_000), new TransferRequest(idB, 9_000)), BatchMode.ALL_OR_NOTHING));
+        assertThat(ex.getCode()).isEqualTo("INSUFFICIENT_FUNDS");
+        assertThat(service.getBalance(idA)).isEqualTo(7_000);
+        assertThat(service.getBalance(idB)).isEqualTo(3_000);
+    }
+
+    @Test
+    void transferBatch_perItem_skipsAndReportsRejectedItems() {
+        service.deposit(idA, 5_000);
+        var result = service.transferBatch(idA, List.of(
+                new TransferRequest(idB, 4_000),
+                new TransferRequest(idB + 1_000, 500),
+                new TransferRequest(idB, 2_000),
+                new TransferRequest(idA, 100),
+                new TransferRequest(idB, 1_000)), BatchMode.PER_ITEM);
+
+        assertThat(result.items()).extracting(BatchTransferResponse.Item::status).containsExactly(
+                "APPLIED", "RECEIVER_NOT_FOUND", "INSUFFICIENT_FUNDS", "SELF_TRANSFER", "APPLIED");
+        assertThat(result.applied()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(3);
+        assertThat(service.getBalance(idA)).isZero();
+        assertThat(service.getBalance(idB)).isEqualTo(5_000);
+    }
+
+    @Test
+    void history_carriesEachSidesBalanceAfter_andBalanceAtSeeksIt() {
+        LocalDateTime beforeAny = LocalDateTime.now();
+        service.deposit(idA, 10_000);
+        service.transfer(idA, idB, 2_500);
+        LocalDateTime afterTransfer = LocalDateTime.now();
+        service.withdraw(idA, 500);
+        service.transferBatch(idA, List.of(new TransferRequest(idB, 1_000), new TransferRequest(idB, 2_000)),
+                BatchMode.ALL_OR_NOTHING);
+
+        assertThat(service.getHistory(idA, null, 10).items()).extracting(TransactionView::balanceAfter)
+                .containsExactly(4_000L, 6_000L, 7_000L, 7_500L, 10_000L);
+        assertThat(service.getHistory(idB, null, 10).items()).extracting(TransactionView::balanceAfter)
+                .containsExactly(5_500L, 3_500L, 2_500L);
+
+        assertThat(service.getBalanceAt(idA, beforeAny)).isZero();
+        assertThat(service.getBalanceAt(idA, afterTransfer)).isEqualTo(7_500);
+        assertThat(service.getBalanceAt(idB, afterTransfer)).isEqualTo(2_500);
+        assertThat(service.getBalanceAt(idA, LocalDateTime.now())).isEqualTo(service.getBalance(idA));
+        var ex = assertThrows(ApiException.class, () -> service.getBalanceAt(idB + 1_000, afterTransfer));
+        assertThat(ex.getCode()).isEqualTo("USER_NOT_FOUND");
+    }
 }
@@ -0,0 +1,60 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BalanceBackfillTest {
+
+    @Autowired private AccountService service;
+    @Autowired private BalanceBackfill backfill;
+    @Autowired private UserRepository users;
+    @Autowired private JdbcTemplate jdbc;
+
+    @Test
+    void backfill_rebuildsMissingBalancesAfter_fromTheCurrentBalance() {
+        String a = "backfillA" + System.nanoTime();
+        String b = "backfillB" + System.nanoTime();
+        service.register(a, "pass12345", "USER");
+        service.register(b, "pass12345", "USER");
+        Long idA = users.findByUsername(a).map(User::getId).orElseThrow();
+        Long idB = users.findByUsername(b).map(User::getId).orElseThrow();
+        service.deposit(idA, 10_000);
+        service.transfer(idA, idB, 3_000);
+        service.withdraw(idB, 1_000);
+        service.transfer(idB, idA, 500);
+        List<Long> expectedA = balancesAfter(idA);
+        List<Long> expectedB = balancesAfter(idB);
+
+        // As if the rows predated the columns, except the newest one, which keeps its value
+        jdbc.update("update transactions set sender_balance_after = null, receiver_balance_after = null " +
+                "where (sender_id in (?, ?) or receiver_id in (?, ?)) and id < (select max(id) from transactions " +
+                "where sender_id in (?, ?) or receiver_id in (?, ?))", idA, idB, idA, idB, idA, idB, idA, idB);
+        assertThat(balancesAfter(idA)).containsNull();
+
+        var result = backfill.run();
+
+        assertThat(result.accounts()).isGreaterThanOrEqualTo(2);
+        assertThat(result.rowsUpdated()).isGreaterThanOrEqualTo(3);
+        assertThat(balancesAfter(idA)).isEqualTo(expectedA).containsExactly(7_500L, 7_000L, 10_000L);
+        assertThat(balancesAfter(idB)).isEqualTo(expectedB).containsExactly(1_500L, 2_000L, 3_000L);
+        assertThat(backfill.run().rowsUpdated()).isZero();
+    }
+
+    private List<Long> balancesAfter(Long userId) {
+        return service.getHistory(userId, null, 10).items().stream().map(TransactionView::balanceAfter).toList();
+    }
+}
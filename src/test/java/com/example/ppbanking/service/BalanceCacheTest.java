@@ -0,0 +1,78 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.TestUsers;
+import com.example.ppbanking.dto.TransferRequest;
+import com.example.ppbanking.repo.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BalanceCacheTest {
+
+    @Autowired private BalanceCache balances;
+    @Autowired private AccountService service;
+    @Autowired private UserRepository users;
+
+    private Long id;
+    private Long other;
+
+    @BeforeEach
+    void setup() {
+        id = TestUsers.register(service, users, "bc");
+        other = TestUsers.register(service, users, "bd");
+    }
+
+    @Test
+    void repeatedReads_hitTheCache_untilABalanceChanges() {
+        long before = balances.dbLookups();
+        assertThat(service.getBalance(id)).isZero();
+        assertThat(service.getBalance(id)).isZero();
+        assertThat(balances.dbLookups() - before).isEqualTo(1);
+
+        service.deposit(id, 700);
+        assertThat(service.getBalance(id)).isEqualTo(700);
+        service.transfer(id, other, 200);
+        assertThat(service.getBalance(id)).isEqualTo(500);
+        assertThat(service.getBalance(other)).isEqualTo(200);
+        service.transferBatch(id, List.of(new TransferRequest(other, 50)), BatchMode.PER_ITEM);
+        assertThat(service.getBalance(id)).isEqualTo(450);
+        assertThat(service.getBalance(other)).isEqualTo(250);
+        assertThat(service.getBalance(other)).isEqualTo(250);
+
+        assertThat(balances.dbLookups() - before).isEqualTo(6);
+        assertThat(balances.stats().hitCount()).isPositive();
+    }
+
+    @Test
+    void readsRacingWithWrites_neverLeaveAStaleBalanceCached() throws Exception {
+        ExecutorService readers = Executors.newFixedThreadPool(3);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> polls = List.of(readers.submit(() -> poll(writing)), readers.submit(() -> poll(writing)),
+                    readers.submit(() -> poll(writing)));
+            for (int i = 0; i < 200; i++) service.deposit(id, 1);
+            writing.set(false);
+            for (Future<?> f : polls) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            readers.shutdownNow();
+        }
+        assertThat(service.getBalance(id)).isEqualTo(200).isEqualTo(users.findBalance(id).orElseThrow());
+    }
+
+    private void poll(AtomicBoolean writing) {
+        while (writing.get()) service.getBalance(id);
+    }
+}
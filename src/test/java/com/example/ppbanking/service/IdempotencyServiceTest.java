@@ -0,0 +1,91 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.TestUsers;
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.repo.IdempotencyRecordRepository;
+import com.example.ppbanking.repo.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyServiceTest {
+
+    @Autowired private IdempotencyService idempotency;
+    @Autowired private AccountService service;
+    @Autowired private UserRepository users;
+    @Autowired private IdempotencyRecordRepository records;
+    @Autowired private TransactionRetry retry;
+
+    private Long id;
+
+    @BeforeEach
+    void setup() {
+        String name = TestUsers.uniqueName("idem");
+        service.register(name, "pass12345", "USER");
+        id = users.findByUsername(name).map(User::getId).orElseThrow();
+    }
+
+    @Test
+    void retriedKey_isReplayed_withoutApplyingTwice() {
+        assertThat(idempotency.execute(id, "k1", "deposit:500", () -> service.deposit(id, 500))).isFalse();
+        assertThat(idempotency.execute(id, "k1", "deposit:500", () -> service.deposit(id, 500))).isTrue();
+        assertThat(service.getBalance(id)).isEqualTo(500);
+
+        var ex = assertThrows(ApiException.class,
+                () -> idempotency.execute(id, "k1", "deposit:700", () -> service.deposit(id, 700)));
+        assertThat(ex.getCode()).isEqualTo("IDEMPOTENCY_KEY_REUSED");
+    }
+
+    @Test
+    void failedAttempt_storesNothing_soTheRetryRuns() {
+        assertThrows(ApiException.class,
+                () -> idempotency.execute(id, "w1", "withdraw:100", () -> service.withdraw(id, 100)));
+        service.deposit(id, 100);
+        assertThat(idempotency.execute(id, "w1", "withdraw:100", () -> service.withdraw(id, 100))).isFalse();
+        assertThat(service.getBalance(id)).isZero();
+    }
+
+    @Test
+    void keysSurviveRestart_throughThePersistentStore() {
+        idempotency.execute(id, "r1", "deposit:250", () -> service.deposit(id, 250));
+        assertThat(records.existsById(id + ":r1")).isTrue();
+
+        // A fresh instance has an empty in-memory index, like a restarted node
+        IdempotencyService restarted = new IdempotencyService(records, retry, 1000, 24, 5000, false);
+        assertThat(restarted.execute(id, "r1", "deposit:250", () -> service.deposit(id, 250))).isTrue();
+        assertThat(service.getBalance(id)).isEqualTo(250);
+    }
+
+    @Test
+    void concurrentRetriesOfOneKey_applyOnce() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return idempotency.execute(id, "c1", "deposit:100", () -> service.deposit(id, 100));
+            }));
+        }
+        start.countDown();
+        int executed = 0;
+        for (Future<Boolean> f : results) if (!f.get(10, TimeUnit.SECONDS)) executed++;
+        pool.shutdown();
+
+        assertThat(executed).isEqualTo(1);
+        assertThat(service.getBalance(id)).isEqualTo(100);
+    }
+}
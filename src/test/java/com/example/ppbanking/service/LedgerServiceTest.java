@@ -0,0 +1,101 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.TestUsers;
+import com.example.ppbanking.dto.LedgerCheckResponse;
+import com.example.ppbanking.dto.TransferRequest;
+import com.example.ppbanking.repo.BalanceSnapshotRepository;
+import com.example.ppbanking.repo.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"app.ledger.enabled=true", "app.ledger.snapshotLagSeconds=0"})
+@ActiveProfiles("test")
+class LedgerServiceTest {
+
+    @Autowired private LedgerService ledger;
+    @Autowired private AccountService service;
+    @Autowired private UserRepository users;
+    @Autowired private BalanceSnapshotRepository snapshots;
+    @Autowired private JdbcTemplate jdbc;
+
+    private Long alice;
+    private Long bob;
+
+    @BeforeEach
+    void setup() {
+        alice = TestUsers.register(service, users, "la");
+        bob = TestUsers.register(service, users, "lb");
+    }
+
+    @Test
+    void everyOperation_keepsLedgerAndBalancesInAgreement() {
+        service.deposit(alice, 10_000);
+        service.withdraw(alice, 1_500);
+        service.transfer(alice, bob, 2_000);
+        service.transferBatch(alice, List.of(new TransferRequest(bob, 100), new TransferRequest(bob, 50)),
+                BatchMode.PER_ITEM);
+
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(ledger.balanceAt(alice, now)).isEqualTo(6_350).isEqualTo(service.getBalance(alice));
+        assertThat(ledger.balanceAt(bob, now)).isEqualTo(2_150).isEqualTo(service.getBalance(bob));
+
+        LedgerCheckResponse check = ledger.check();
+        assertThat(check.postingsTotal()).isZero();
+        assertThat(check.mismatches()).extracting(LedgerCheckResponse.Mismatch::accountId)
+                .doesNotContain(alice, bob);
+    }
+
+    @Test
+    void balanceAt_answersForPastMoments_beforeAndAfterSnapshots() throws InterruptedException {
+        service.deposit(alice, 500);
+        LocalDateTime afterFirst = pause();
+        service.deposit(alice, 300);
+
+        assertThat(ledger.balanceAt(alice, afterFirst)).isEqualTo(500);
+
+        assertThat(ledger.snapshot()).isPositive();
+        assertThat(snapshots.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(alice, LocalDateTime.now()))
+                .get().extracting(s -> s.getBalance()).isEqualTo(800L);
+        LocalDateTime atSnapshot = pause();
+        service.withdraw(alice, 200);
+
+        assertThat(ledger.balanceAt(alice, afterFirst)).isEqualTo(500);
+        assertThat(ledger.balanceAt(alice, atSnapshot)).isEqualTo(800);
+        assertThat(ledger.balanceAt(alice, LocalDateTime.now())).isEqualTo(600);
+
+        // A second run builds on the first snapshot rather than rescanning from the beginning
+        ledger.snapshot();
+        assertThat(snapshots.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(alice, LocalDateTime.now()))
+                .get().extracting(s -> s.getBalance()).isEqualTo(600L);
+        assertThat(ledger.balanceAt(alice, LocalDateTime.now())).isEqualTo(600);
+    }
+
+    @Test
+    void check_reportsBalanceDriftingFromTheLedger() {
+        service.deposit(bob, 1_000);
+        jdbc.update("update users set balance = balance + 1 where id = ?", bob);
+        try {
+            assertThat(ledger.check().mismatches())
+                    .contains(new LedgerCheckResponse.Mismatch(bob, 1_001, 1_000));
+        } finally {
+            jdbc.update("update users set balance = balance - 1 where id = ?", bob);
+        }
+    }
+
+    /** A moment strictly between the surrounding writes' timestamps. */
+    private static LocalDateTime pause() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime at = LocalDateTime.now();
+        Thread.sleep(5);
+        return at;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.TestUsers;
+import com.example.ppbanking.archive.TransactionArchive;
+import com.example.ppbanking.dto.TransactionPage;
+import com.example.ppbanking.dto.TransactionView;
+import com.example.ppbanking.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TransactionArchiverTest {
+
+    @Autowired private AccountService service;
+    @Autowired private TransactionArchiver archiver;
+    @Autowired private TransactionArchive archive;
+    @Autowired private TransactionExporter exporter;
+    @Autowired private UserRepository users;
+    @Autowired private JdbcTemplate jdbc;
+
+    @Test
+    void oldMonths_moveToTheArchive_andStayReadableThroughHistoryBalanceAtAndExport() throws Exception {
+        Long a = TestUsers.register(service, users, "archiveA");
+        Long b = TestUsers.register(service, users, "archiveB");
+        // Two long-gone months (far enough back that no other test's rows are involved) and a recent deposit
+        insert(a, a, 10_000, "DEPOSIT", LocalDateTime.of(2001, 1, 5, 9, 0), 10_000, 10_000);
+        insert(a, b, 3_000, "TRANSFER", LocalDateTime.of(2001, 1, 20, 9, 0), 7_000, 3_000);
+        insert(b, a, 1_000, "TRANSFER", LocalDateTime.of(2001, 2, 10, 9, 0), 2_000, 8_000);
+        jdbc.update("update users set balance = 8000 where id = ?", a);
+        jdbc.update("update users set balance = 2000 where id = ?", b);
+        service.deposit(a, 500);
+        List<TransactionView> before = fullHistory(a);
+        assertThat(before).extracting(TransactionView::balanceAfter).containsExactly(8_500L, 8_000L, 7_000L, 10_000L);
+
+        var first = archiver.run();
+
+        assertThat(first.months()).isGreaterThanOrEqualTo(2);
+        assertThat(first.rowsArchived()).isGreaterThanOrEqualTo(3);
+        assertThat(archive.snapshot().horizon()).isAfterOrEqualTo(LocalDateTime.of(2001, 3, 1, 0, 0));
+        // Rows leave the table only on the next run, but are already read from the archive alone
+        assertThat(hotRows(a)).isEqualTo(4);
+        assertThat(fullHistory(a)).isEqualTo(before);
+
+        var second = archiver.run();
+
+        assertThat(second.months()).isZero();
+        assertThat(second.rowsPurged()).isGreaterThanOrEqualTo(3);
+        assertThat(hotRows(a)).isEqualTo(1);
+        assertThat(fullHistory(a)).isEqualTo(before);
+        assertThat(fullHistory(b)).extracting(TransactionView::balanceAfter).containsExactly(2_000L, 3_000L);
+
+        assertThat(service.getBalanceAt(a, LocalDateTime.of(2001, 1, 31, 0, 0))).isEqualTo(7_000);
+        assertThat(service.getBalanceAt(a, LocalDateTime.of(2001, 6, 1, 0, 0))).isEqualTo(8_000);
+        assertThat(service.getBalanceAt(a, LocalDateTime.of(2000, 12, 31, 0, 0))).isZero();
+        assertThat(service.getBalanceAt(a, LocalDateTime.now().plusMinutes(1))).isEqualTo(8_500);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(a, LocalDateTime.of(2001, 1, 10, 0, 0), LocalDateTime.now().plusMinutes(1), ExportFormat.CSV, out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[1]).endsWith(",30.00,70.00");
+        assertThat(lines[2]).endsWith(",10.00,80.00");
+        assertThat(lines[3]).endsWith(",5.00,85.00");
+    }
+
+    private void insert(Long from, Long to, long amount, String type, LocalDateTime at, long senderAfter, long receiverAfter) {
+        jdbc.update("insert into transactions (id, sender_id, receiver_id, amount, type, created_at, " +
+                        "sender_balance_after, receiver_balance_after) values (next value for transactions_seq, ?, ?, ?, ?, ?, ?, ?)",
+                from, to, amount, type, Timestamp.valueOf(at), senderAfter, receiverAfter);
+    }
+
+    private int hotRows(Long userId) {
+        return jdbc.queryForObject("select count(*) from transactions where sender_id = ? or receiver_id = ?",
+                Integer.class, userId, userId);
+    }
+
+    // Two rows per page, so pages cross from the table into the archive and from one month to the next
+    private List<TransactionView> fullHistory(Long userId) {
+        List<TransactionView> rows = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionPage page = service.getHistory(userId, cursor, 2);
+            rows.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return rows;
+    }
+}
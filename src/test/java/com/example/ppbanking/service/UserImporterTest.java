@@ -0,0 +1,140 @@
+package com.example.ppbanking.service;
+
+import com.example.ppbanking.domain.User;
+import com.example.ppbanking.dto.UserImportResponse;
+import com.example.ppbanking.dto.UserImportResponse.RowError;
+import com.example.ppbanking.exception.ApiException;
+import com.example.ppbanking.repo.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserImporterTest {
+
+    @Autowired private AccountService account;
+    @Autowired private UserRepository users;
+    @Autowired private PasswordEncoder encoder;
+    @Autowired private Validator validator;
+    @Autowired private ObjectMapper json;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private UserImporter importer;
+
+    @BeforeEach
+    void setup() {
+        // Small chunks so one input spans several existence checks and insert transactions
+        importer = new UserImporter(users, encoder, validator, json, transactionManager, 3, 2, 100);
+    }
+
+    @Test
+    void csvImport_createsValidRows_andReportsTheRest() throws Exception {
+        String p = "imp" + System.nanoTime() + "_";
+        account.register(p + "taken", "pass12345", "USER");
+        String hash = encoder.encode("migrated123");
+        String csv = String.join("\n",
+                "username,password,passwordHash,role",
+                p + "alice,pass12345,,",
+                p + "bob,\"pa,ss\"\"word1\",,ADMIN",
+                p + "taken,pass12345,,",
+                p + "alice,other12345,,",
+                "x,pass12345,,",
+                p + "carol,pass12345,,BOSS",
+                "",
+                p + "dave,," + hash + ",",
+                p + "erin,\"unterminated,,") + "\n";
+
+        UserImportResponse report = importer.importUsers(stream(csv), ImportFormat.CSV);
+
+        assertThat(report.finished()).isTrue();
+        assertThat(report.processed()).isEqualTo(8);
+        assertThat(report.imported()).isEqualTo(3);
+        assertThat(report.rejected()).isEqualTo(5);
+        assertThat(report.errors()).extracting(RowError::line, RowError::code).containsExactlyInAnyOrder(
+                tuple(4L, "USERNAME_TAKEN"),
+                tuple(5L, "USERNAME_TAKEN"),
+                tuple(6L, "INVALID"),
+                tuple(7L, "ROLE_INVALID"),
+                tuple(10L, "MALFORMED"));
+
+        User bob = users.findByUsername(p + "bob").orElseThrow();
+        assertThat(bob.getRole()).isEqualTo("ADMIN");
+        assertThat(encoder.matches("pa,ss\"word1", bob.getPasswordHash())).isTrue();
+        assertThat(users.findByUsername(p + "dave").orElseThrow().getPasswordHash()).isEqualTo(hash);
+        assertThat(account.getBalance(users.findByUsername(p + "alice").orElseThrow().getId())).isZero();
+        assertThat(importer.status()).isEqualTo(report);
+    }
+
+    @Test
+    void ndjsonImport_readsOneObjectPerLine() throws Exception {
+        String p = "imp" + System.nanoTime() + "_";
+        String ndjson = "{\"username\":\"" + p + "one\",\"password\":\"pass12345\"}\n"
+                + "not json\n"
+                + "{\"username\":\"" + p + "two\",\"password\":\"pass12345\",\"role\":\"user\"}\n";
+
+        UserImportResponse report = importer.importUsers(stream(ndjson), ImportFormat.NDJSON);
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.errors()).extracting(RowError::line, RowError::code)
+                .containsExactly(tuple(2L, "MALFORMED"));
+        assertThat(users.findByUsername(p + "two")).hasValueSatisfying(u -> assertThat(u.getRole()).isEqualTo("USER"));
+    }
+
+    @Test
+    void usernamesRegisteredDuringTheInsert_areRejected_howeverOftenThatHappens() throws Exception {
+        String p = "imp" + System.nanoTime() + "_";
+        // Each of the first two inserts loses a race to a registration committed just before it
+        List<String> racing = new ArrayList<>(List.of(p + "a", p + "b"));
+        UserRepository racy = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("insertAll") && !racing.isEmpty()) {
+                        String name = racing.remove(0);
+                        CompletableFuture.runAsync(() -> account.register(name, "pass12345", "USER")).join();
+                    }
+                    try {
+                        return method.invoke(users, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        importer = new UserImporter(racy, encoder, validator, json, transactionManager, 3, 2, 100);
+        String csv = "username,password\n" + p + "a,pass12345\n" + p + "b,pass12345\n" + p + "c,pass12345\n";
+
+        UserImportResponse report = importer.importUsers(stream(csv), ImportFormat.CSV);
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).extracting(RowError::line, RowError::code)
+                .containsExactlyInAnyOrder(tuple(2L, "USERNAME_TAKEN"), tuple(3L, "USERNAME_TAKEN"));
+        assertThat(users.findByUsername(p + "c")).isPresent();
+    }
+
+    @Test
+    void csvImport_requiresAUsableHeader() {
+        var ex = assertThrows(ApiException.class,
+                () -> importer.importUsers(stream("name,secret\nx,y\n"), ImportFormat.CSV));
+        assertThat(ex.getCode()).isEqualTo("HEADER_INVALID");
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.ppbanking.web;
 
 import com.example.ppbanking.security.JwtService;
+import com.example.ppbanking.security.PrincipalCache;
 import com.example.ppbanking.service.AccountService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,29 +12,33 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Map;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 @SpringBootTest
 @ActiveProfiles("test")
 @AutoConfigureMockMvc // run with filters (JwtAuthFilter)
+@Transactional // MockMvc runs on the test thread, so each test's user is rolled back
 class AccountControllerIntegrationTest {
 
     @Autowired private MockMvc mvc;
     @Autowired private ObjectMapper om;
     @Autowired private JwtService jwt;
     @Autowired private AccountService account;
+    @Autowired private PrincipalCache principals;
 
     private String accessToken;
 
     @BeforeEach
     void setup() {
         account.register("maksym","pass12345","USER");
-        // Generate a real access token for "kate"
-        accessToken = jwt.generateAccess("maksym");
+        // Generate a real access token for "maksym"
+        accessToken = jwt.generateAccess(principals.get("maksym"));
     }
 
     @Test
@@ -49,4 +54,100 @@ class AccountControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.balance").value(200.0));
     }
+
+    @Test
+    void amounts_areDecimalOnTheWire_withAtMostTwoPlaces() throws Exception {
+        mvc.perform(post("/account/deposit")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 12.345}"))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(post("/account/deposit")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 0.10}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/account/balance")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(0.1));
+    }
+
+    @Test
+    void batchTransfer_perItem_reportsEachItem() throws Exception {
+        account.register("kate", "pass12345", "USER");
+        long kate = principals.get("kate").id();
+        account.deposit(principals.get("maksym").id(), 1_000);
+
+        mvc.perform(post("/account/transfers/batch")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"mode": "PER_ITEM", "transfers": [
+                                  {"toUserId": %d, "amount": 2.50},
+                                  {"toUserId": %d, "amount": 100}
+                                ]}""".formatted(kate, kate)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(1))
+                .andExpect(jsonPath("$.debited").value(2.5))
+                .andExpect(jsonPath("$.items[1].status").value("INSUFFICIENT_FUNDS"));
+    }
+
+    @Test
+    void batchTransfer_perItem_reportsInvalidItemsInsteadOfFailingTheRequest() throws Exception {
+        account.register("kate", "pass12345", "USER");
+        long kate = principals.get("kate").id();
+        account.deposit(principals.get("maksym").id(), 1_000);
+
+        mvc.perform(post("/account/transfers/batch")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"mode": "PER_ITEM", "transfers": [
+                                  {"toUserId": %d, "amount": 1.00},
+                                  {"toUserId": %d, "amount": 0},
+                                  {"amount": 1.00},
+                                  {"toUserId": -5, "amount": 1.00}
+                                ]}""".formatted(kate, kate)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(1))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.items[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$.items[1].status").value("AMOUNT_INVALID"))
+                .andExpect(jsonPath("$.items[2].status").value("RECEIVER_INVALID"))
+                .andExpect(jsonPath("$.items[3].status").value("RECEIVER_INVALID"));
+
+        // The same batch all-or-nothing is refused as a whole, naming the first bad item
+        mvc.perform(post("/account/transfers/batch")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"transfers": [
+                                  {"toUserId": %d, "amount": 1.00},
+                                  {"amount": 1.00}
+                                ]}""".formatted(kate)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("RECEIVER_INVALID"));
+    }
+
+    @Test
+    void retriedDeposit_withIdempotencyKey_isReplayed() throws Exception {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mvc.perform(post("/account/deposit")
+                            .header("Authorization", "Bearer " + accessToken)
+                            .header("Idempotency-Key", "payroll-2026-10")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"amount\": 5.00}"))
+                    .andExpect(status().isOk())
+                    .andExpect(attempt == 0
+                            ? header().doesNotExist("Idempotent-Replayed")
+                            : header().string("Idempotent-Replayed", "true"));
+        }
+
+        mvc.perform(get("/account/balance")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(jsonPath("$.balance").value(5.0));
+    }
 }
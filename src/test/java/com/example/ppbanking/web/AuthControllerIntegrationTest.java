@@ -1,6 +1,7 @@
 package com.example.ppbanking.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -8,6 +9,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -15,6 +18,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 @SpringBootTest
@@ -24,19 +29,39 @@ class AuthControllerIntegrationTest {
 
     @Autowired private MockMvc mvc;
     @Autowired private ObjectMapper om;
+    @Autowired private MeterRegistry registry;
 
     @Test
     void register_and_login_returnsTokens() throws Exception {
-        mvc.perform(post("/auth/register")
+        // Both endpoints hash on the PasswordHasher pool and complete asynchronously
+        MvcResult registered = mvc.perform(post("/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(om.writeValueAsString(Map.of("username","maks","password","pass12345"))))
+                .andReturn();
+        mvc.perform(asyncDispatch(registered))
                 .andExpect(status().isOk());
 
-        mvc.perform(post("/auth/login")
+        MvcResult login = mvc.perform(post("/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(om.writeValueAsString(Map.of("username","maks","password","pass12345"))))
+                .andReturn();
+        mvc.perform(asyncDispatch(login))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").isString())
                 .andExpect(jsonPath("$.refreshToken").isString());
     }
+
+    @Test
+    void register_takenUsername_isRejectedWithoutHashing() throws Exception {
+        String body = om.writeValueAsString(Map.of("username", "taken", "password", "pass12345"));
+        MvcResult first = mvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andReturn();
+        mvc.perform(asyncDispatch(first)).andExpect(status().isOk());
+        long hashes = registry.get("bank.password.hash").tag("operation", "encode").timer().count();
+
+        mvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isConflict());
+
+        assertThat(registry.get("bank.password.hash").tag("operation", "encode").timer().count()).isEqualTo(hashes);
+    }
 }
@@ -0,0 +1,104 @@
+package com.example.ppbanking.web;
+
+import com.example.ppbanking.repo.UserRepository;
+import com.example.ppbanking.security.JwtService;
+import com.example.ppbanking.security.PrincipalCache;
+import com.example.ppbanking.service.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+// Not @Transactional: the body is written on an async thread, which only sees committed rows
+class TransactionExportIntegrationTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private JwtService jwt;
+    @Autowired private AccountService account;
+    @Autowired private PrincipalCache principals;
+    @Autowired private UserRepository users;
+
+    private String accessToken;
+    private Long userId;
+    private Long otherId;
+
+    @BeforeEach
+    void setup() {
+        String name = "exporter" + System.nanoTime();
+        String payee = "payee" + System.nanoTime();
+        account.register(name, "pass12345", "USER");
+        account.register(payee, "pass12345", "USER");
+        userId = users.findByUsername(name).orElseThrow().getId();
+        otherId = users.findByUsername(payee).orElseThrow().getId();
+        account.deposit(userId, 10_000);
+        account.transfer(userId, otherId, 1_234);
+        accessToken = jwt.generateAccess(principals.get(name));
+    }
+
+    @Test
+    void csvExport_streamsTheHistoryOldestFirst() throws Exception {
+        MvcResult started = mvc.perform(get("/account/transactions/export")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Exports get their own long timeout rather than the global async one
+        assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(TimeUnit.MINUTES.toMillis(30));
+
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.csv\""))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo("id,createdAt,type,senderId,receiverId,amount,balanceAfter");
+        assertThat(lines[1]).endsWith(",DEPOSIT," + userId + "," + userId + ",100.00,100.00");
+        assertThat(lines[2]).endsWith(",TRANSFER," + userId + "," + otherId + ",12.34,87.66");
+    }
+
+    @Test
+    void ndjsonExport_writesOneTransactionPerLine() throws Exception {
+        MvcResult started = mvc.perform(get("/account/transactions/export")
+                        .param("format", "ndjson")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"type\":\"DEPOSIT\"").contains("\"amount\":100.00");
+        assertThat(lines[1]).contains("\"type\":\"TRANSFER\"").contains("\"amount\":12.34").contains("\"balanceAfter\":87.66");
+    }
+
+    @Test
+    void export_rejectsAnUnknownFormat() throws Exception {
+        mvc.perform(get("/account/transactions/export")
+                        .param("format", "xml")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("FORMAT_INVALID"));
+    }
+}